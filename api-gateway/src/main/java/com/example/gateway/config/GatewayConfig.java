@@ -1,32 +1,126 @@
 package com.example.gateway.config;
 
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.netty.http.client.HttpClient;
 
+import java.util.List;
+
+/**
+ * Builds every gateway route from the gateway.routes table ({@link RouteTable}); lb:// services are
+ * balanced by {@link LatencyAwareLoadBalancer}.
+ */
 @Configuration
+@EnableConfigurationProperties({GatewayRouteProperties.class, ResponseCacheProperties.class, LoadBalancingProperties.class})
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
 public class GatewayConfig {
+    // Before NettyWriteResponseFilter, so backend responses are written through the cache
+    private static final int RESPONSE_CACHE_ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    // Before the cache, so cache hits are rate limited like any other request
+    private static final int RATE_LIMITER_ORDER = RESPONSE_CACHE_ORDER - 1;
+
+    @Bean
+    public RouteTable routeTable(GatewayRouteProperties properties) {
+        return new RouteTable(properties.routes());
+    }
+
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties properties) {
+        return new ResponseCache(properties.maxSize().toBytes());
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCache responseCache, ResponseCacheProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new ResponseCacheFilter(responseCache, properties, meterRegistry);
+    }
 
     @Bean
-    public RouteLocator routeLocator(RouteLocatorBuilder builder) {
-        return builder.routes()
-                .route("persons-service", r -> r.path("/api/persons/**")
-                        .filters(f -> f
-                                .circuitBreaker(c -> c.setName("personsCircuitBreaker"))
-                                .requestRateLimiter(rl -> rl.setRateLimiter(redisRateLimiter())))
-                        .uri("lb://persons-service"))
-                .route("image-requests-service", r -> r.path("/api/image-requests/**")
-                        .filters(f -> f
-                                .circuitBreaker(c -> c.setName("imageRequestsCircuitBreaker"))
-                                .requestRateLimiter(rl -> rl.setRateLimiter(redisRateLimiter())))
-                        .uri("lb://image-requests-service"))
-                .build();
+    public InstanceLatencies instanceLatencies(LoadBalancingProperties properties, MeterRegistry meterRegistry) {
+        return new InstanceLatencies(properties, meterRegistry);
     }
 
     @Bean
-    public RedisRateLimiter redisRateLimiter() {
-        return new RedisRateLimiter(10, 20);
+    public InstanceLatencyFilter instanceLatencyFilter(InstanceLatencies instanceLatencies) {
+        return new InstanceLatencyFilter(instanceLatencies);
+    }
+
+    @Bean
+    public HedgingFilter hedgingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                       HttpClientProperties httpClientProperties, LoadBalancerClientFactory clientFactory,
+                                       InstanceLatencies instanceLatencies, LoadBalancingProperties properties,
+                                       MeterRegistry meterRegistry) {
+        return new HedgingFilter(httpClient, headersFilters, httpClientProperties, clientFactory, instanceLatencies,
+                properties, meterRegistry);
+    }
+
+    @Bean
+    public RouteLocator routeLocator(RouteLocatorBuilder builder, RouteTable routeTable,
+                                     RateLimitProperties rateLimitProperties, LocalTokenBucketRateLimiter rateLimiter,
+                                     RequestRateLimiterGatewayFilterFactory rateLimiterFactory, KeyResolver ipKeyResolver, ResponseCacheProperties responseCacheProperties,
+                                     ResponseCacheFilter responseCacheFilter, LoadBalancingProperties loadBalancingProperties,
+                                     HedgingFilter hedgingFilter) {
+        RouteLocatorBuilder.Builder routes = builder.routes();
+        for (GatewayRouteProperties.Route route : routeTable.routes()) {
+            routes.route(route.id(), r -> r
+                    .predicate(exchange -> {
+                        RouteTable.Match match = routeTable.match(exchange);
+                        return match != null && match.route() == route;
+                    })
+                    .filters(f -> {
+                        GatewayFilterSpec filters = f
+                                .filter(rewritePath(routeTable))
+                                .addRequestHeader("X-Service-Name", route.uri().getHost());
+                        if (rateLimitProperties.enabled()) {
+                            filters.filter(rateLimiterFactory.apply(c -> c
+                                    .setRateLimiter(rateLimiter)
+                                    .setKeyResolver(ipKeyResolver)), RATE_LIMITER_ORDER);
+                        }
+                        // Cache hits skip the circuit breaker, which only guards calls to the service
+                        if (route.responseCache() && responseCacheProperties.enabled()) {
+                            filters.filter(responseCacheFilter, RESPONSE_CACHE_ORDER);
+                        }
+                        // After the load balancer chose the first instance, in place of NettyRoutingFilter
+                        if (route.hedge() && loadBalancingProperties.hedging().enabled() && "lb".equals(route.uri().getScheme())) {
+                            filters.filter(hedgingFilter, HedgingFilter.ORDER);
+                        }
+                        if (route.circuitBreaker() != null) {
+                            filters.circuitBreaker(c -> c.setName(route.circuitBreaker()));
+                        }
+                        return filters;
+                    })
+                    .uri(route.uri()));
+        }
+        return routes.build();
+    }
+
+    // Forwards the path the route table already rewrote while matching
+    private static GatewayFilter rewritePath(RouteTable routeTable) {
+        return (exchange, chain) -> {
+            RouteTable.Match match = routeTable.match(exchange);
+            if (match == null || !match.rewritten()) {
+                return chain.filter(exchange);
+            }
+            ServerWebExchangeUtils.addOriginalRequestUrl(exchange, exchange.getRequest().getURI());
+            ServerHttpRequest request = exchange.getRequest().mutate().path(match.path()).build();
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, request.getURI());
+            return chain.filter(exchange.mutate().request(request).build());
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * The gateway.routes table, the only place routes are defined.
+ * @param routes The routes; each path prefix may belong to one route only.
+ */
+@ConfigurationProperties(prefix = "gateway")
+public record GatewayRouteProperties(@DefaultValue List<Route> routes) {
+
+    /**
+     * @param id Route id, also the key of its rate-limit.endpoints entry.
+     * @param uri Where matching requests go, e.g. "lb://persons-service".
+     * @param paths Path prefixes the route serves, e.g. "/api/persons"; a prefix matches itself and every path below it.
+     * @param rewriteTo Prefix that replaces the matched one before forwarding, or null to forward the path unchanged.
+     * @param circuitBreaker Name of the resilience4j circuit breaker guarding the route, or null for none.
+     * @param responseCache Whether GET responses of the route are cached (see {@link ResponseCacheFilter}).
+     * @param hedge Whether slow GETs of an lb:// route are also sent to a second instance (see {@link HedgingFilter}).
+     */
+    public record Route(String id, URI uri, List<String> paths, String rewriteTo, String circuitBreaker,
+                        boolean responseCache, boolean hedge) {
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.gateway.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.TimeoutException;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends GET requests of a route to the instance the load balancer chose and, if it has not answered
+ * after the service's usual response time (a percentile of {@link InstanceLatencies}), to a second
+ * instance as well; whichever answers first is used and the other call is cancelled. One slow replica
+ * then costs a request at most that delay instead of its full latency.
+ * <p>
+ * Hedged GETs are sent by this filter itself, in place of the gateway's NettyRoutingFilter, which it
+ * mirrors: same HTTP client, header filters and response timeout, and the response is handed over the
+ * same way, so NettyWriteResponseFilter streams its body. A budget caps hedges at a fraction of the
+ * GETs, so a slowdown of every instance does not double the load on them. Only GETs are hedged, as
+ * they are idempotent.
+ * <p>
+ * Both calls are measured here, each up to its own response headers: the chosen instance's call is
+ * taken over from {@link InstanceLatencyFilter}, and a call that loses the race counts as cancelled.
+ */
+public class HedgingFilter implements GatewayFilter {
+    public static final int ORDER = InstanceLatencyFilter.ORDER + 1;
+    private static final Logger logger = LoggerFactory.getLogger(HedgingFilter.class);
+    private static final long TOKEN = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final HttpClient httpClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final Duration responseTimeout;
+    private final LoadBalancerClientFactory clientFactory;
+    private final InstanceLatencies latencies;
+    private final LoadBalancingProperties.Hedging properties;
+    private final long deposit;
+    private final AtomicLong tokens = new AtomicLong();
+    private final Counter sent;
+    private final Counter won;
+
+    public HedgingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                         HttpClientProperties httpClientProperties, LoadBalancerClientFactory clientFactory,
+                         InstanceLatencies latencies, LoadBalancingProperties properties, MeterRegistry meterRegistry) {
+        this.httpClient = httpClient;
+        this.headersFilters = headersFilters;
+        this.responseTimeout = httpClientProperties.getResponseTimeout();
+        this.clientFactory = clientFactory;
+        this.latencies = latencies;
+        this.properties = properties.hedging();
+        this.deposit = Math.round(this.properties.budget() * TOKEN);
+        this.sent = hedges(meterRegistry, "sent");
+        this.won = hedges(meterRegistry, "won");
+    }
+
+    private static Counter hedges(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.loadbalancer.hedges")
+                .description("Hedged GET requests sent to a second instance, and those it answered first")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A backend response whose headers have arrived and whose body is still unread.
+     */
+    private record Upstream(HttpClientResponse response, Connection connection, boolean hedged) {
+        void dispose() {
+            connection.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (!HttpMethod.GET.equals(request.getMethod()) || ServerWebExchangeUtils.isAlreadyRouted(exchange)
+                || chosen == null || !chosen.hasServer() || url == null
+                || !("http".equalsIgnoreCase(url.getScheme()) || "https".equalsIgnoreCase(url.getScheme()))) {
+            return chain.filter(exchange);
+        }
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        tokens.getAndUpdate(available -> Math.min(MAX_TOKENS, available + deposit));
+
+        ServiceInstance primary = chosen.getServer();
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange);
+        boolean preserveHost = exchange.getAttributeOrDefault(ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE, false);
+        String host = request.getHeaders().getFirst(HttpHeaders.HOST);
+        Duration delay = delay(primary.getServiceId());
+
+        InstanceLatencies.Call primaryCall = exchange.getAttributes().remove(InstanceLatencyFilter.CALL_ATTR)
+                instanceof InstanceLatencies.Call call ? call : latencies.start(primary);
+        Mono<Upstream> first = send(url, headers, preserveHost, host, false);
+        if (responseTimeout != null) {
+            // On the first call, which starts with the race, so a timeout is recorded as its failure
+            first = first.timeout(responseTimeout,
+                    Mono.error(() -> new TimeoutException("Response took longer than timeout: " + responseTimeout)));
+        }
+        first = measure(first, primaryCall);
+        Mono<Upstream> second = Mono.delay(delay)
+                .then(Mono.defer(() -> hedge(url, headers, preserveHost, host, primary)));
+        return Flux.merge(first, second).next()
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e))
+                .doOnNext(upstream -> respond(exchange, upstream))
+                .doOnDiscard(Upstream.class, Upstream::dispose)
+                .then(Mono.defer(() -> chain.filter(exchange)));
+    }
+
+    private Duration delay(String serviceId) {
+        Duration percentile = latencies.percentile(serviceId, properties.percentile());
+        if (percentile == null || percentile.compareTo(properties.maxDelay()) > 0) {
+            return properties.maxDelay();
+        }
+        return percentile.compareTo(properties.minDelay()) < 0 ? properties.minDelay() : percentile;
+    }
+
+    private Mono<Upstream> hedge(URI url, HttpHeaders headers, boolean preserveHost, String host, ServiceInstance primary) {
+        ReactiveLoadBalancer<ServiceInstance> loadBalancer = clientFactory.getInstance(primary.getServiceId());
+        if (loadBalancer == null) {
+            return Mono.empty();
+        }
+        return Mono.from(loadBalancer.choose(new DefaultRequest<>(new LatencyAwareLoadBalancer.Excluding(primary))))
+                .filter(Response::hasServer)
+                .map(Response::getServer)
+                .filter(instance -> !LatencyAwareLoadBalancer.sameAddress(instance, primary)
+                        && tokens.getAndUpdate(available -> available >= TOKEN ? available - TOKEN : available) >= TOKEN)
+                .flatMap(instance -> {
+                    sent.increment();
+                    return measure(send(LoadBalancerUriTools.reconstructURI(instance, url), headers, preserveHost, host, true),
+                            latencies.start(instance));
+                })
+                // A failed hedge must not fail the request; the first call may still answer
+                .onErrorResume(error -> {
+                    logger.debug("Hedged request to {} failed: {}", primary.getServiceId(), error.toString());
+                    return Mono.empty();
+                });
+    }
+
+    // The call that loses the race is cancelled when the other one answers
+    private static Mono<Upstream> measure(Mono<Upstream> upstream, InstanceLatencies.Call call) {
+        return upstream
+                .doOnNext(answered -> call.completed(HttpStatusCode.valueOf(answered.response().status().code())))
+                .doOnError(error -> call.failed())
+                .doOnCancel(call::cancelled);
+    }
+
+    private Mono<Upstream> send(URI url, HttpHeaders headers, boolean preserveHost, String host, boolean hedged) {
+        return httpClient
+                .headers(nettyHeaders -> {
+                    headers.forEach(nettyHeaders::set);
+                    nettyHeaders.remove(HttpHeaders.HOST);
+                    if (preserveHost && host != null) {
+                        nettyHeaders.add(HttpHeaders.HOST, host);
+                    }
+                })
+                .get()
+                .uri(url.toASCIIString())
+                .responseConnection((response, connection) -> Mono.just(new Upstream(response, connection, hedged)))
+                .next();
+    }
+
+    // Hands the response over to NettyWriteResponseFilter the way NettyRoutingFilter does
+    private void respond(ServerWebExchange exchange, Upstream upstream) {
+        if (upstream.hedged()) {
+            won.increment();
+        }
+        HttpClientResponse clientResponse = upstream.response();
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR, clientResponse);
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR, upstream.connection());
+
+        HttpHeaders headers = new HttpHeaders();
+        clientResponse.responseHeaders().forEach(header -> headers.add(header.getKey(), header.getValue()));
+        String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (StringUtils.hasLength(contentType)) {
+            exchange.getAttributes().put(ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentType);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(clientResponse.status().code()));
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of), headers, exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        if (!filtered.containsKey(HttpHeaders.TRANSFER_ENCODING) && filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES, filtered.keySet());
+        response.getHeaders().addAll(filtered);
+    }
+}
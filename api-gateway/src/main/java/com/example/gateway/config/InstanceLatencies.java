@@ -0,0 +1,241 @@
+package com.example.gateway.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Observed latency of every backend instance the gateway calls, for {@link LatencyAwareLoadBalancer}
+ * and {@link HedgingFilter}.
+ * <p>
+ * Each instance keeps a peak-EWMA of its response times: a slower response replaces the estimate at
+ * once, faster ones pull it down gradually, and while an instance gets no traffic its estimate decays
+ * towards zero so it is tried again. Its cost is that estimate times the calls in flight to it plus
+ * one. Each service keeps a window of its latest successful response times to derive the hedging delay.
+ * Latency is measured up to the response headers. Per-instance timers and gauges are exported as
+ * gateway.loadbalancer.*.
+ */
+public class InstanceLatencies {
+    private static final int WINDOW_SIZE = 1024;
+    private static final int MIN_SAMPLES = 64;
+    private static final long PERCENTILE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // Cost of an instance without samples that is already busy: above any real latency, so it gets one call at a time
+    private static final double UNMEASURED_PENALTY = TimeUnit.SECONDS.toNanos(60);
+
+    private final ConcurrentMap<String, Instance> instances = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final LongSupplier clock;
+
+    public InstanceLatencies(LoadBalancingProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    InstanceLatencies(LoadBalancingProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.meterRegistry = meterRegistry;
+        this.decayNanos = properties.decay().toNanos();
+        this.failurePenaltyNanos = properties.failurePenalty().toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Starts measuring a call.
+     * @param serviceInstance The instance called.
+     * @return The call; only its first outcome is recorded.
+     */
+    public Call start(ServiceInstance serviceInstance) {
+        Instance instance = instance(serviceInstance);
+        instance.inFlight.incrementAndGet();
+        return new Call(instance, clock.getAsLong());
+    }
+
+    /**
+     * @param serviceInstance The instance.
+     * @return Its load: latency estimate in nanoseconds times (calls in flight + 1); lower is better.
+     */
+    public double cost(ServiceInstance serviceInstance) {
+        return instance(serviceInstance).cost(clock.getAsLong());
+    }
+
+    /**
+     * @param serviceId The service.
+     * @param percentile The percentile, e.g. 0.95.
+     * @return The percentile of the service's recent successful response times, or null until enough responses have been seen.
+     */
+    public Duration percentile(String serviceId, double percentile) {
+        Window window = windows.get(serviceId);
+        return window != null ? window.percentile(percentile, clock.getAsLong()) : null;
+    }
+
+    private Instance instance(ServiceInstance serviceInstance) {
+        String address = serviceInstance.getHost() + ":" + serviceInstance.getPort();
+        return instances.computeIfAbsent(serviceInstance.getServiceId() + "/" + address,
+                key -> new Instance(serviceInstance.getServiceId(), address));
+    }
+
+    /**
+     * One call to an instance.
+     */
+    public final class Call {
+        private final Instance instance;
+        private final long startedAt;
+        // A Mono can be cancelled right after it emitted, which would otherwise leave the in-flight count twice
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Call(Instance instance, long startedAt) {
+            this.instance = instance;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * The instance answered; 5xx responses count as failures.
+         * @param status The response status, or null if none was set.
+         */
+        public void completed(HttpStatusCode status) {
+            if (status != null && status.is5xxServerError()) {
+                failed();
+                return;
+            }
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            long now = clock.getAsLong();
+            long latency = now - startedAt;
+            instance.inFlight.decrementAndGet();
+            instance.observe(latency, now);
+            instance.successes.record(latency, TimeUnit.NANOSECONDS);
+            windows.computeIfAbsent(instance.serviceId, serviceId -> new Window()).add(latency);
+        }
+
+        /**
+         * The call failed; it is recorded as taking at least the failure penalty.
+         */
+        public void failed() {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            long now = clock.getAsLong();
+            long latency = now - startedAt;
+            instance.inFlight.decrementAndGet();
+            instance.observe(Math.max(latency, failurePenaltyNanos), now);
+            instance.failures.record(latency, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * The call was abandoned before the instance answered; no latency is recorded.
+         */
+        public void cancelled() {
+            if (done.compareAndSet(false, true)) {
+                instance.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private final class Instance {
+        private final String serviceId;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer successes;
+        private final Timer failures;
+        private double estimate;
+        private long observedAt;
+
+        Instance(String serviceId, String address) {
+            this.serviceId = serviceId;
+            this.successes = requests(serviceId, address, "success");
+            this.failures = requests(serviceId, address, "failure");
+            Gauge.builder("gateway.loadbalancer.instance.latency", this, instance -> instance.estimate(clock.getAsLong()) / 1e9)
+                    .description("Peak-EWMA response time of the instance")
+                    .tag("service", serviceId)
+                    .tag("instance", address)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.loadbalancer.instance.in-flight", inFlight, AtomicInteger::get)
+                    .description("Calls to the instance awaiting a response")
+                    .tag("service", serviceId)
+                    .tag("instance", address)
+                    .register(meterRegistry);
+        }
+
+        private Timer requests(String serviceId, String address, String outcome) {
+            return Timer.builder("gateway.loadbalancer.requests")
+                    .description("Calls to a backend instance and the time to its response headers")
+                    .tag("service", serviceId)
+                    .tag("instance", address)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        synchronized void observe(long latency, long now) {
+            double decayed = estimate(now);
+            double weight = Math.exp(-(now - observedAt) / decayNanos);
+            estimate = latency > decayed ? latency : decayed + latency * (1 - weight);
+            observedAt = now;
+        }
+
+        synchronized double estimate(long now) {
+            return estimate == 0 ? 0 : estimate * Math.exp(-(now - observedAt) / decayNanos);
+        }
+
+        double cost(long now) {
+            int pending = inFlight.get();
+            double latency = estimate(now);
+            if (latency == 0) {
+                return pending == 0 ? 0 : UNMEASURED_PENALTY + pending;
+            }
+            return latency * (pending + 1);
+        }
+    }
+
+    /**
+     * The latest response times of a service, with a percentile recomputed at most once a second.
+     */
+    private static final class Window {
+        private final AtomicLongArray samples = new AtomicLongArray(WINDOW_SIZE);
+        private final AtomicLong count = new AtomicLong();
+        private volatile long computedAt;
+        private volatile double computedPercentile = -1;
+        private volatile Duration value;
+
+        void add(long latency) {
+            samples.set((int) (count.getAndIncrement() % WINDOW_SIZE), latency);
+        }
+
+        Duration percentile(double percentile, long now) {
+            int size = (int) Math.min(count.get(), WINDOW_SIZE);
+            if (size < MIN_SAMPLES) {
+                return null;
+            }
+            Duration current = value;
+            if (current != null && computedPercentile == percentile && now - computedAt < PERCENTILE_REFRESH_NANOS) {
+                return current;
+            }
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int index = Math.min(size - 1, Math.max(0, (int) Math.ceil(percentile * size) - 1));
+            current = Duration.ofNanos(sorted[index]);
+            value = current;
+            computedPercentile = percentile;
+            computedAt = now;
+            return current;
+        }
+    }
+}
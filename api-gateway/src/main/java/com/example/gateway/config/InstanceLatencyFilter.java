@@ -0,0 +1,68 @@
+package com.example.gateway.config;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures every call to the instance the load balancer chose into {@link InstanceLatencies}. It runs
+ * right after the load balancer, so the rest of the chain completes when the backend's response
+ * headers arrive; the body is written afterwards and not counted. Unlike the load balancer's own
+ * lifecycle callbacks, calls abandoned by the client still leave the in-flight count.
+ * <p>
+ * The call is kept in the {@link #CALL_ATTR} attribute. {@link HedgingFilter} takes it from there
+ * for the GETs it sends itself and completes it when the chosen instance answers, so the time of a
+ * hedge that answered first is not recorded for the chosen instance; this filter then leaves it alone.
+ */
+public class InstanceLatencyFilter implements GlobalFilter, Ordered {
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    public static final String CALL_ATTR = InstanceLatencyFilter.class.getName() + ".call";
+
+    private final InstanceLatencies latencies;
+
+    public InstanceLatencyFilter(InstanceLatencies latencies) {
+        this.latencies = latencies;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+        InstanceLatencies.Call call = latencies.start(chosen.getServer());
+        exchange.getAttributes().put(CALL_ATTR, call);
+        return chain.filter(exchange)
+                .doOnSuccess(done -> {
+                    if (owns(exchange, call)) {
+                        call.completed(exchange.getResponse().getStatusCode());
+                    }
+                })
+                .doOnError(error -> {
+                    if (owns(exchange, call)) {
+                        call.failed();
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (owns(exchange, call)) {
+                        call.cancelled();
+                    }
+                });
+    }
+
+    // False once HedgingFilter has taken the call over
+    private static boolean owns(ServerWebExchange exchange, InstanceLatencies.Call call) {
+        return exchange.getAttribute(CALL_ATTR) == call;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.gateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses an instance of a service by power of two choices: of two instances picked at random, the one
+ * with the lower cost in {@link InstanceLatencies} (peak-EWMA latency times calls in flight). A slow or
+ * overloaded replica quickly stops getting traffic, unlike with round robin, while the random pick keeps
+ * gateway instances from all herding onto the same fastest replica.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    private static final Logger logger = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceSupplier;
+    private final String serviceId;
+    private final InstanceLatencies latencies;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instanceSupplier, String serviceId,
+                                    InstanceLatencies latencies) {
+        this.instanceSupplier = instanceSupplier;
+        this.serviceId = serviceId;
+        this.latencies = latencies;
+    }
+
+    /**
+     * Request context asking for an instance other than one already called, used for hedged requests.
+     * @param instance The instance to avoid.
+     */
+    public record Excluding(ServiceInstance instance) {
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceSupplier.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        ServiceInstance excluded = request != null && request.getContext() instanceof Excluding excluding
+                ? excluding.instance() : null;
+        return supplier.get(request).next().map(instances -> choose(instances, excluded));
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances, ServiceInstance excluded) {
+        List<ServiceInstance> candidates = instances;
+        if (excluded != null) {
+            candidates = new ArrayList<>(instances.size());
+            for (ServiceInstance instance : instances) {
+                if (!sameAddress(instance, excluded)) {
+                    candidates.add(instance);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            if (excluded == null) {
+                logger.warn("No servers available for service: {}", serviceId);
+            }
+            return new EmptyResponse();
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(latencies.cost(a) <= latencies.cost(b) ? a : b);
+    }
+
+    static boolean sameAddress(ServiceInstance a, ServiceInstance b) {
+        return a.getPort() == b.getPort() && a.getHost().equals(b.getHost());
+    }
+}
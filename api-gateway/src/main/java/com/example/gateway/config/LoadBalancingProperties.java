@@ -0,0 +1,35 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The gateway.load-balancing.* properties of {@link LatencyAwareLoadBalancer} and {@link HedgingFilter};
+ * which routes hedge is set per route (hedge: true).
+ * @param decay How fast an instance's latency estimate forgets old responses: a sample this old weighs 1/e.
+ * @param failurePenalty Latency recorded for failed calls and 5xx responses, so failing fast does not attract traffic.
+ * @param hedging When to send a second request for a slow GET.
+ */
+@ConfigurationProperties(prefix = "gateway.load-balancing")
+public record LoadBalancingProperties(
+        @DefaultValue("10s") Duration decay,
+        @DefaultValue("1s") Duration failurePenalty,
+        @DefaultValue Hedging hedging) {
+
+    /**
+     * @param enabled Whether routes with hedge: true send hedged requests at all.
+     * @param percentile Latency percentile of the service after which a GET is sent to a second instance.
+     * @param minDelay Shortest wait before hedging, whatever the percentile.
+     * @param maxDelay Longest wait before hedging; also used until enough responses have been seen.
+     * @param budget Hedged requests allowed per request on the route, e.g. 0.1 for at most 10% extra load.
+     */
+    public record Hedging(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("0.95") double percentile,
+            @DefaultValue("20ms") Duration minDelay,
+            @DefaultValue("500ms") Duration maxDelay,
+            @DefaultValue("0.1") double budget) {
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.gateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket for RequestRateLimiter that decides in-process and reconciles with Redis in the
+ * background, so unlike RedisRateLimiter no request waits for a Redis round trip. Each route and
+ * client key has a bucket kept as a theoretical arrival time (GCRA): a request is admitted by one
+ * compare-and-set if it does not push that time more than the burst capacity ahead of now, which
+ * refills the bucket implicitly as time passes. The tokens admitted locally are sent to Redis for
+ * all buckets in one Lua script call every sync interval (or as soon as a bucket has used its local
+ * share), which advances the global arrival time and returns it, and the local bucket adopts it.
+ * <p>
+ * Several instances together can admit at most about {@code tolerance * burstCapacity} extra
+ * requests per instance and sync. If Redis fails or is slower than the sync timeout, the limit is
+ * enforced per instance until a later reconciliation succeeds. The tokens admitted meanwhile are then
+ * reported at once, but an arrival time never gets more than the burst capacity ahead of now, so a
+ * client that kept to its rate during the outage is not locked out afterwards: it has at most used
+ * up its burst.
+ * <p>
+ * The script reads and writes the keys of many clients in one call, so it needs a standalone (or
+ * Sentinel-managed) Redis: on Redis Cluster the keys hash to different slots and the call fails
+ * with CROSSSLOT, which leaves every instance enforcing its limits on its own.
+ */
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config>
+        implements AutoCloseable {
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-token-bucket-rate-limiter";
+    // Same headers as RedisRateLimiter, so clients see no difference
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalTokenBucketRateLimiter.class);
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    // Arrival time of a bucket dropped from the map; requests that still hold it move to a new one
+    private static final long RETIRED = Long.MAX_VALUE;
+
+    // KEYS: arrival times in epoch microseconds, ARGV: for each key the microseconds to add and the bucket
+    // capacity, followed by the current time. An arrival time never gets more than the capacity ahead of
+    // now, as admitting a request never pushes it further
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SYNC_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[#ARGV])
+            local tats = {}
+            for i, key in ipairs(KEYS) do
+                local increment = tonumber(ARGV[2 * i - 1])
+                local capacity = tonumber(ARGV[2 * i])
+                local tat = math.min(math.max(tonumber(redis.call('GET', key)) or now, now) + increment, now + capacity)
+                redis.call('SET', key, string.format('%.0f', tat), 'PX', math.ceil((tat - now) / 1000) + 1000)
+                tats[i] = tat
+            end
+            return tats
+            """, List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Config defaultConfig;
+    private final Duration syncTimeout;
+    private final double tolerance;
+    private final Scheduler syncScheduler;
+    private final LongSupplier clock;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+    private final AtomicBoolean syncing = new AtomicBoolean();
+    private final Disposable periodicSync;
+    private volatile boolean redisAvailable = true;
+
+    /**
+     * Bucket of one client on one route.
+     */
+    private static final class Bucket {
+        final String redisKey;
+        // Microseconds one token takes to replenish, and how far ahead of now the arrival time may get
+        final long emissionInterval;
+        final long capacity;
+        final long localShare;
+        // Theoretical arrival time in epoch microseconds; the bucket is full when it is not after now,
+        // and RETIRED once it was dropped
+        final AtomicLong tat;
+        // Tokens admitted here but not yet reported to Redis
+        final AtomicLong pending = new AtomicLong();
+
+        Bucket(String redisKey, Config config, double share, long now) {
+            this.redisKey = redisKey;
+            this.emissionInterval = Math.max(1, MICROS_PER_SECOND / config.getReplenishRate());
+            this.capacity = emissionInterval * config.getBurstCapacity();
+            this.localShare = Math.max(1, (long) (config.getBurstCapacity() * share));
+            this.tat = new AtomicLong(now);
+        }
+    }
+
+    /**
+     * @param redisTemplate Template used for reconciliation.
+     * @param defaultReplenishRate Tokens per second of routes without their own entry in {@link #getConfig()}.
+     * @param defaultBurstCapacity Bucket size of routes without their own entry.
+     * @param syncInterval How often local buckets are reconciled with Redis.
+     * @param syncTimeout How long a reconciliation may take before it is given up.
+     * @param tolerance Share of the burst capacity a bucket may admit before it reconciles early.
+     */
+    public LocalTokenBucketRateLimiter(ReactiveStringRedisTemplate redisTemplate, int defaultReplenishRate,
+                                       int defaultBurstCapacity, Duration syncInterval, Duration syncTimeout,
+                                       double tolerance) {
+        this(redisTemplate, new Config().setReplenishRate(defaultReplenishRate).setBurstCapacity(defaultBurstCapacity),
+                syncInterval, syncTimeout, tolerance, Schedulers.parallel(), epochMicros());
+    }
+
+    LocalTokenBucketRateLimiter(ReactiveStringRedisTemplate redisTemplate, Config defaultConfig, Duration syncInterval,
+                                Duration syncTimeout, double tolerance, Scheduler syncScheduler, LongSupplier clock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, null);
+        this.redisTemplate = redisTemplate;
+        this.defaultConfig = defaultConfig;
+        this.syncTimeout = syncTimeout;
+        this.tolerance = tolerance;
+        this.syncScheduler = syncScheduler;
+        this.clock = clock;
+        this.periodicSync = Flux.interval(syncInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> sync())
+                .subscribe();
+    }
+
+    // Wall-clock microseconds, so arrival times are comparable across instances, advanced by the monotonic clock
+    private static LongSupplier epochMicros() {
+        long originMicros = System.currentTimeMillis() * 1000;
+        long originNanos = System.nanoTime();
+        return () -> originMicros + (System.nanoTime() - originNanos) / 1000;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long now = clock.getAsLong();
+        String key = routeId + ":" + id;
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = bucket(key, config, now);
+        }
+        int requested = config.getRequestedTokens();
+        while (true) {
+            long tat = bucket.tat.get();
+            if (tat == RETIRED) {
+                bucket = bucket(key, config, now);
+                continue;
+            }
+            long increment = bucket.emissionInterval * requested;
+            long newTat = Math.max(tat, now) + increment;
+            long ahead = newTat - now;
+            if (ahead > bucket.capacity) {
+                long remaining = (bucket.capacity - Math.max(tat - now, 0)) / bucket.emissionInterval;
+                return Mono.just(new Response(false, getHeaders(config, Math.max(remaining, 0))));
+            }
+            if (bucket.tat.compareAndSet(tat, newTat)) {
+                if (bucket.pending.addAndGet(requested) >= bucket.localShare) {
+                    requestSync();
+                }
+                return Mono.just(new Response(true,
+                        getHeaders(config, (bucket.capacity - ahead) / bucket.emissionInterval)));
+            }
+        }
+    }
+
+    private Bucket bucket(String key, Config config, long now) {
+        return buckets.computeIfAbsent(key, k -> new Bucket("request_rate_limiter.{" + k + "}.tat", config, tolerance, now));
+    }
+
+    private Map<String, String> getHeaders(Config config, long remaining) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(REMAINING_HEADER, Long.toString(remaining));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        headers.put(REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+        return headers;
+    }
+
+    private void requestSync() {
+        if (syncScheduled.compareAndSet(false, true)) {
+            syncScheduler.schedule(() -> {
+                syncScheduled.set(false);
+                sync().subscribe();
+            });
+        }
+    }
+
+    /**
+     * Reports the tokens admitted locally to Redis and adopts the global arrival times. Full buckets
+     * with nothing to report are dropped. Completes without error if Redis fails or times out.
+     */
+    Mono<Void> sync() {
+        return Mono.defer(() -> {
+            if (!syncing.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            long now = clock.getAsLong();
+            List<String> keys = new ArrayList<>();
+            List<String> args = new ArrayList<>();
+            List<Bucket> reported = new ArrayList<>();
+            List<Long> deltas = new ArrayList<>();
+            for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+                Bucket bucket = entry.getValue();
+                long delta = bucket.pending.get();
+                if (delta == 0) {
+                    buckets.computeIfPresent(entry.getKey(), (key, current) -> retire(current, now) ? null : current);
+                    continue;
+                }
+                keys.add(bucket.redisKey);
+                args.add(Long.toString(delta * bucket.emissionInterval));
+                args.add(Long.toString(bucket.capacity));
+                reported.add(bucket);
+                deltas.add(delta);
+            }
+            if (keys.isEmpty()) {
+                syncing.set(false);
+                return Mono.empty();
+            }
+            args.add(Long.toString(now));
+            return redisTemplate.execute(SYNC_SCRIPT, keys, args)
+                    .next()
+                    .timeout(syncTimeout)
+                    .doOnNext(tats -> adopt(reported, deltas, tats, clock.getAsLong()))
+                    .doOnError(this::onSyncFailed)
+                    .onErrorResume(e -> Mono.empty())
+                    // Not doFinally, which runs only after the caller has seen completion
+                    .doOnTerminate(() -> syncing.set(false))
+                    .doOnCancel(() -> syncing.set(false))
+                    .then();
+        });
+    }
+
+    // A full bucket with nothing to report is dropped; the compare-and-set keeps a request from being admitted by it meanwhile
+    private static boolean retire(Bucket bucket, long now) {
+        long tat = bucket.tat.get();
+        return bucket.pending.get() == 0 && tat <= now && bucket.tat.compareAndSet(tat, RETIRED);
+    }
+
+    private void adopt(List<Bucket> reported, List<Long> deltas, List<?> tats, long now) {
+        for (int i = 0; i < reported.size(); i++) {
+            Bucket bucket = reported.get(i);
+            long stillPending = bucket.pending.addAndGet(-deltas.get(i));
+            // The global time includes what we reported; tokens admitted since come on top
+            long globalTat = Math.min(((Number) tats.get(i)).longValue() + stillPending * bucket.emissionInterval,
+                    now + bucket.capacity);
+            bucket.tat.accumulateAndGet(globalTat, Math::max);
+        }
+        if (!redisAvailable) {
+            redisAvailable = true;
+            logger.info("Rate limit reconciliation with Redis resumed");
+        }
+    }
+
+    private void onSyncFailed(Throwable e) {
+        // Keep the tokens pending; limits stay enforced locally until Redis is back
+        if (redisAvailable) {
+            redisAvailable = false;
+            logger.warn("Rate limit reconciliation with Redis failed, enforcing limits locally: {}", e.toString());
+        }
+    }
+
+    /**
+     * Stops the periodic reconciliation and reports the remaining tokens.
+     */
+    @Override
+    public void close() {
+        periodicSync.dispose();
+        sync().block();
+    }
+
+    /**
+     * Limit of one route.
+     */
+    public static class Config {
+        private int replenishRate;
+        private int burstCapacity = 1;
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Config{replenishRate=" + replenishRate + ", burstCapacity=" + burstCapacity
+                    + ", requestedTokens=" + requestedTokens + "}";
+        }
+    }
+}
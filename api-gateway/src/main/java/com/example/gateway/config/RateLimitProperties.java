@@ -0,0 +1,34 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.context.properties.bind.Name;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The rate-limit.* properties.
+ * @param enabled Whether routes are rate limited at all.
+ * @param defaults Limit of routes without an entry in {@code endpoints}.
+ * @param endpoints Limits by route id.
+ * @param syncInterval How often the local buckets are reconciled with Redis.
+ * @param syncTimeout How long a reconciliation may take before limits are enforced locally until the next one.
+ * @param tolerance Share of a bucket's burst capacity an instance may admit before it reconciles early.
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @Name("default") @DefaultValue Limit defaults,
+        @DefaultValue Map<String, Limit> endpoints,
+        @DefaultValue("100ms") Duration syncInterval,
+        @DefaultValue("200ms") Duration syncTimeout,
+        @DefaultValue("0.1") double tolerance) {
+
+    /**
+     * @param replenishRate Requests per second a client may make on average.
+     * @param burstCapacity Requests a client may make at once.
+     */
+    public record Limit(@DefaultValue("100") int replenishRate, @DefaultValue("100") int burstCapacity) {
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.gateway.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import reactor.core.publisher.Mono;
 
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimiterConfig {
 
+    // Primary over the RedisRateLimiter the gateway auto-configures, which is left unused
     @Bean
-    public RedisRateLimiter redisRateLimiter() {
-        return new RedisRateLimiter(100, 100); // replenishRate=100, burstCapacity=100
+    @Primary
+    public LocalTokenBucketRateLimiter localTokenBucketRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                                                   RateLimitProperties properties) {
+        LocalTokenBucketRateLimiter rateLimiter = new LocalTokenBucketRateLimiter(redisTemplate,
+                properties.defaults().replenishRate(), properties.defaults().burstCapacity(),
+                properties.syncInterval(), properties.syncTimeout(), properties.tolerance());
+        // Limits are looked up by route id
+        properties.endpoints().forEach((routeId, limit) -> rateLimiter.getConfig().put(routeId,
+                new LocalTokenBucketRateLimiter.Config()
+                        .setReplenishRate(limit.replenishRate())
+                        .setBurstCapacity(limit.burstCapacity())
+                        .setRequestedTokens(1)));
+        return rateLimiter;
     }
 
     @Bean
@@ -26,9 +41,10 @@ public class RateLimiterConfig {
     }
 
     @Bean
+    @Primary
     public KeyResolver ipKeyResolver() {
         return exchange -> Mono.just(
             exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
         );
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,282 @@
+package com.example.gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Store of cached GET responses, bounded by the bytes they take; bodies live in direct buffers
+ * so a large cache adds no heap to scan and is written to clients without copying.
+ * <p>
+ * Entries follow the backend's Cache-Control: no-store responses are never kept, max-age (or
+ * s-maxage) responses are served for that long, and responses that carry an ETag are kept after
+ * they go stale so they can be revalidated with If-None-Match. Responses listing request headers
+ * in Vary are only served to requests with the same values for them.
+ */
+public class ResponseCache {
+    // Headers that describe the connection or the body encoding of one response, not the resource
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "age", "set-cookie",
+            "proxy-authenticate", "proxy-authorization", "te", "trailer", "upgrade");
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<Key, Entry> entries;
+    // Keys of the stored responses by path, so a write drops those of its path without a scan of all keys;
+    // each set is only changed inside compute() of its path
+    private final ConcurrentMap<String, Set<Key>> keysByPath = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public ResponseCache(long maxBytes) {
+        this(maxBytes, System::nanoTime);
+    }
+
+    ResponseCache(long maxBytes, LongSupplier clock) {
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> entry.weight() + key.weight())
+                .evictionListener((Key key, Entry entry, RemovalCause cause) -> unindex(key))
+                .build();
+    }
+
+    /**
+     * Identifies a cached response.
+     * @param path The request path as the client sent it.
+     * @param query The raw query string, or null.
+     * @param scope Who may see the response: the principal and its authorities, or empty for anonymous requests.
+     */
+    public record Key(String path, String query, String scope) {
+        int weight() {
+            return 2 * (path.length() + (query != null ? query.length() : 0) + scope.length());
+        }
+    }
+
+    /**
+     * A cached response.
+     * @param headers The response headers, without per-connection ones.
+     * @param body The body, read-only; use {@link #body()} to get a buffer positioned at its start.
+     * @param eTag The entity tag, or null.
+     * @param varyValues For each header named in Vary, its values in the request that produced the response.
+     * @param storedAt When the response was stored or last revalidated, in {@link System#nanoTime()} units.
+     * @param freshNanos How long after {@code storedAt} the response may be served without revalidation.
+     */
+    public record Entry(HttpHeaders headers, ByteBuffer body, String eTag, Map<String, List<String>> varyValues,
+                        long storedAt, long freshNanos) {
+
+        public ByteBuffer body() {
+            return body.duplicate();
+        }
+
+        public int length() {
+            return body.remaining();
+        }
+
+        boolean isFresh(long now) {
+            return now - storedAt < freshNanos;
+        }
+
+        long ageSeconds(long now) {
+            return Duration.ofNanos(now - storedAt).toSeconds();
+        }
+
+        int weight() {
+            int weight = ENTRY_OVERHEAD + body.capacity();
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                weight += 2 * header.getKey().length();
+                for (String value : header.getValue()) {
+                    weight += 2 * value.length();
+                }
+            }
+            return weight;
+        }
+
+        private boolean variesFrom(HttpHeaders requestHeaders) {
+            for (Map.Entry<String, List<String>> vary : varyValues.entrySet()) {
+                if (!vary.getValue().equals(requestHeaders.getOrEmpty(vary.getKey()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Looks up the response for a request.
+     * @param key The request's key.
+     * @param requestHeaders The request headers, matched against the entry's Vary headers.
+     * @return The entry, fresh or stale, or null if there is none for this request.
+     */
+    public Entry get(Key key, HttpHeaders requestHeaders) {
+        Entry entry = entries.getIfPresent(key);
+        return entry != null && !entry.variesFrom(requestHeaders) ? entry : null;
+    }
+
+    /**
+     * Stores a 200 response if its headers allow it.
+     * @param key The request's key.
+     * @param requestHeaders The request headers.
+     * @param responseHeaders The response headers.
+     * @param body The response body.
+     * @return The stored entry, or null if the response is not cacheable.
+     */
+    public Entry put(Key key, HttpHeaders requestHeaders, HttpHeaders responseHeaders, byte[] body) {
+        if (!isStorable(responseHeaders)) {
+            return null;
+        }
+        Map<String, List<String>> varyValues = new LinkedHashMap<>();
+        for (String header : responseHeaders.getVary()) {
+            varyValues.put(header, List.copyOf(requestHeaders.getOrEmpty(header)));
+        }
+        HttpHeaders headers = new HttpHeaders();
+        responseHeaders.forEach((name, values) -> {
+            if (!UNSTORED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, List.copyOf(values));
+            }
+        });
+        ByteBuffer buffer = ByteBuffer.allocateDirect(body.length).put(body).flip().asReadOnlyBuffer();
+        Entry entry = new Entry(HttpHeaders.readOnlyHttpHeaders(headers), buffer, responseHeaders.getETag(),
+                Map.copyOf(varyValues), clock.getAsLong(), freshNanos(responseHeaders));
+        entries.put(key, entry);
+        // After the put, so an invalidation in between can at worst miss this response, not leave it unindexed
+        keysByPath.compute(key.path(), (path, keys) -> {
+            Set<Key> indexed = keys != null ? keys : new HashSet<>();
+            indexed.add(key);
+            return indexed;
+        });
+        return entry;
+    }
+
+    /**
+     * Restarts the freshness of an entry the backend confirmed with a 304.
+     * @param key The request's key.
+     * @param entry The revalidated entry.
+     * @param notModifiedHeaders The headers of the 304 response.
+     * @return The entry to serve; it is only stored again if the 304 still allows caching.
+     */
+    public Entry revalidated(Key key, Entry entry, HttpHeaders notModifiedHeaders) {
+        long freshNanos = notModifiedHeaders.getCacheControl() != null ? freshNanos(notModifiedHeaders) : entry.freshNanos();
+        if (freshNanos < 0) {
+            entries.invalidate(key);
+            unindex(key);
+            return entry;
+        }
+        Entry revalidated = new Entry(entry.headers(), entry.body, entry.eTag(), entry.varyValues(),
+                clock.getAsLong(), freshNanos);
+        entries.asMap().computeIfPresent(key, (k, current) -> current == entry ? revalidated : current);
+        return revalidated;
+    }
+
+    /**
+     * Drops every response stored for a path, whatever its query and scope.
+     * @param path The request path.
+     */
+    public void invalidate(String path) {
+        Set<Key> keys = keysByPath.remove(path);
+        if (keys != null) {
+            entries.invalidateAll(keys);
+        }
+    }
+
+    private void unindex(Key key) {
+        keysByPath.computeIfPresent(key.path(), (path, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    public long size() {
+        return entries.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * Whether a 200 response may be stored: it allows it, and it is either fresh for a while or can be revalidated.
+     * @param responseHeaders The response headers.
+     * @return True if {@link #put} would store the response.
+     */
+    public static boolean isStorable(HttpHeaders responseHeaders) {
+        long freshNanos = freshNanos(responseHeaders);
+        return freshNanos >= 0 && (freshNanos > 0 || responseHeaders.getETag() != null)
+                && !responseHeaders.getVary().contains("*") && !responseHeaders.containsKey(HttpHeaders.SET_COOKIE);
+    }
+
+    /**
+     * Whether an If-None-Match header matches an entity tag, by weak comparison.
+     * @param ifNoneMatch The tags of the If-None-Match header.
+     * @param eTag The entity tag, or null.
+     * @return True if the tag is listed or the header is "*".
+     */
+    public static boolean matches(List<String> ifNoneMatch, String eTag) {
+        if (eTag == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(eTag);
+        for (String tag : ifNoneMatch) {
+            if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    // -1 if the response must not be stored, otherwise how long it is fresh (0: revalidate every time)
+    private static long freshNanos(HttpHeaders responseHeaders) {
+        String cacheControl = responseHeaders.getCacheControl();
+        if (cacheControl == null) {
+            return 0;
+        }
+        long maxAge = 0;
+        long sharedMaxAge = -1;
+        boolean noCache = false;
+        for (String directive : StringUtils.commaDelimitedListToStringArray(cacheControl.toLowerCase(Locale.ROOT))) {
+            directive = directive.trim();
+            if (directive.equals("no-store")) {
+                return -1;
+            } else if (directive.equals("no-cache")) {
+                noCache = true;
+            } else if (directive.startsWith("max-age=")) {
+                maxAge = seconds(directive.substring("max-age=".length()));
+            } else if (directive.startsWith("s-maxage=")) {
+                sharedMaxAge = seconds(directive.substring("s-maxage=".length()));
+            }
+        }
+        if (noCache) {
+            return 0;
+        }
+        return Duration.ofSeconds(sharedMaxAge >= 0 ? sharedMaxAge : maxAge).toNanos();
+    }
+
+    private static long seconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.replace("\"", "").trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static boolean hasDirective(HttpHeaders requestHeaders, String directive) {
+        String cacheControl = requestHeaders.getCacheControl();
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains(directive);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.gateway.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Serves GET responses of a route from the {@link ResponseCache} and fills it from the backend.
+ * <p>
+ * Responses are cached per path, query and caller (principal and authorities), so a response is
+ * only ever served to callers with the same access as the one it was fetched for. Fresh entries
+ * are served without a backend call, answering If-None-Match with 304 when the tag matches. Stale
+ * entries with an ETag are revalidated by forwarding the request with that tag; a 304 from the
+ * backend is answered from the cache. Requests with Cache-Control no-cache or no-store bypass the
+ * cache, and successful writes to a path drop the responses cached for it and for its parent.
+ */
+public class ResponseCacheFilter implements GatewayFilter {
+    static final String CACHE_HEADER = "X-Cache";
+
+    private final ResponseCache cache;
+    private final long maxEntrySize;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revalidations;
+    private final Counter bypasses;
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.maxEntrySize = properties.maxEntrySize().toBytes();
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.revalidations = requests(meterRegistry, "revalidated");
+        this.bypasses = requests(meterRegistry, "bypass");
+        Gauge.builder("gateway.response.cache.size", cache, ResponseCache::size)
+                .description("Bytes held by cached responses")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.response.cache.requests")
+                .description("GET requests on cached routes, by how the response cache answered them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+        if (HttpMethod.GET.equals(method)) {
+            return get(exchange, chain);
+        }
+        if (HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method) || HttpMethod.TRACE.equals(method)) {
+            return chain.filter(exchange);
+        }
+        String path = request.getURI().getRawPath();
+        exchange.getResponse().beforeCommit(() -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            if (status != null && status.is2xxSuccessful()) {
+                cache.invalidate(path);
+                cache.invalidate(parent(path));
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> get(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (ResponseCache.hasDirective(request.getHeaders(), "no-cache")
+                || ResponseCache.hasDirective(request.getHeaders(), "no-store")) {
+            bypasses.increment();
+            return chain.filter(exchange);
+        }
+        return exchange.getPrincipal().map(ResponseCacheFilter::scope).defaultIfEmpty("").flatMap(scope -> {
+            ResponseCache.Key key = new ResponseCache.Key(request.getURI().getRawPath(), request.getURI().getRawQuery(), scope);
+            ResponseCache.Entry entry = cache.get(key, request.getHeaders());
+            long now = cache.now();
+            if (entry != null && entry.isFresh(now)) {
+                hits.increment();
+                return write(exchange.getResponse(), request, entry, now, "HIT");
+            }
+            ResponseCache.Entry stale = entry != null && entry.eTag() != null ? entry : null;
+            ServerWebExchange forwarded = exchange;
+            if (stale != null) {
+                forwarded = exchange.mutate()
+                        .request(request.mutate().headers(headers -> {
+                            headers.setIfNoneMatch(stale.eTag());
+                            headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                        }).build())
+                        .build();
+            }
+            CachingResponse response = new CachingResponse(exchange.getResponse(), request, key, stale);
+            return chain.filter(forwarded.mutate().response(response).build());
+        });
+    }
+
+    private static String scope(Principal principal) {
+        if (principal instanceof Authentication authentication) {
+            return authentication.getName() + authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .sorted()
+                    .collect(Collectors.joining(",", "[", "]"));
+        }
+        return principal.getName();
+    }
+
+    private static String parent(String path) {
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        int slash = path.lastIndexOf('/', end - 1);
+        return slash > 0 ? path.substring(0, slash) : "/";
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, ServerHttpRequest request, ResponseCache.Entry entry,
+                                   long now, String result) {
+        HttpHeaders headers = response.getHeaders();
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.putAll(entry.headers());
+        headers.set(HttpHeaders.AGE, Long.toString(entry.ageSeconds(now)));
+        headers.set(CACHE_HEADER, result);
+        if (ResponseCache.matches(ifNoneMatch(request), entry.eTag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(entry.length());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+    }
+
+    private static List<String> ifNoneMatch(ServerHttpRequest request) {
+        try {
+            return request.getHeaders().getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Captures the backend's response into the cache as it is written to the client, and answers
+     * a 304 to a revalidation from the cached entry.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+        private final ServerHttpRequest request;
+        private final ResponseCache.Key key;
+        private final ResponseCache.Entry stale;
+
+        CachingResponse(ServerHttpResponse delegate, ServerHttpRequest request, ResponseCache.Key key,
+                        ResponseCache.Entry stale) {
+            super(delegate);
+            this.request = request;
+            this.key = key;
+            this.stale = stale;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (stale != null && status != null && status.value() == HttpStatus.NOT_MODIFIED.value()) {
+                revalidations.increment();
+                ResponseCache.Entry entry = cache.revalidated(key, stale, getHeaders());
+                return Flux.from(body)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> write(getDelegate(), request, entry, cache.now(), "REVALIDATED")));
+            }
+            misses.increment();
+            HttpHeaders headers = getHeaders();
+            if (status == null || status.value() != HttpStatus.OK.value()
+                    || headers.getContentLength() > maxEntrySize || !ResponseCache.isStorable(headers)) {
+                return super.writeWith(body);
+            }
+            headers.set(CACHE_HEADER, "MISS");
+            BodyCapture capture = new BodyCapture(maxEntrySize);
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(capture::append)
+                    .doOnComplete(() -> {
+                        byte[] bytes = capture.bytes();
+                        if (bytes != null) {
+                            cache.put(key, request.getHeaders(), headers, bytes);
+                        }
+                    }));
+        }
+    }
+
+    /**
+     * Copies a body as it passes, up to a limit.
+     */
+    private static final class BodyCapture {
+        private final long limit;
+        private final List<byte[]> chunks = new ArrayList<>();
+        private int length;
+        private boolean overflowed;
+
+        BodyCapture(long limit) {
+            this.limit = limit;
+        }
+
+        void append(DataBuffer buffer) {
+            int count = buffer.readableByteCount();
+            if (overflowed || length + count > limit) {
+                overflowed = true;
+                chunks.clear();
+                return;
+            }
+            byte[] chunk = new byte[count];
+            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, count);
+            chunks.add(chunk);
+            length += count;
+        }
+
+        byte[] bytes() {
+            if (overflowed) {
+                return null;
+            }
+            if (chunks.size() == 1) {
+                return chunks.get(0);
+            }
+            byte[] bytes = new byte[length];
+            int position = 0;
+            for (byte[] chunk : chunks) {
+                System.arraycopy(chunk, 0, bytes, position, chunk.length);
+                position += chunk.length;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * The gateway.response-cache.* properties; which routes are cached is set per route (response-cache: true).
+ * @param enabled Whether responses are cached at all.
+ * @param maxSize Total size of the cached responses; bodies are held outside the heap.
+ * @param maxEntrySize Largest response body that is cached.
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64MB") DataSize maxSize,
+        @DefaultValue("256KB") DataSize maxEntrySize) {
+}
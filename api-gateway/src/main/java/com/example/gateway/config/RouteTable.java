@@ -0,0 +1,197 @@
+package com.example.gateway.config;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registry of the gateway routes, matched by longest path prefix in a trie of path segments.
+ * <p>
+ * A request is matched once: the result is kept in an exchange attribute, so the predicates of
+ * all routes only compare it. Segments are looked up in per-node hash tables without copying them
+ * out of the path, and rewrites replace the matched prefix by plain concatenation, so a match costs
+ * the same whether the table holds two routes or hundreds.
+ */
+public class RouteTable {
+    private static final String MATCH_ATTRIBUTE = RouteTable.class.getName() + ".match";
+    private static final Object NO_MATCH = new Object();
+
+    private final List<GatewayRouteProperties.Route> routes;
+    private final Node root = new Node(null, 0);
+
+    public RouteTable(List<GatewayRouteProperties.Route> routes) {
+        this.routes = List.copyOf(routes);
+        for (GatewayRouteProperties.Route route : routes) {
+            if (route.paths() == null || route.paths().isEmpty()) {
+                throw new IllegalArgumentException("Route " + route.id() + " has no paths");
+            }
+            for (String path : route.paths()) {
+                add(route, path);
+            }
+        }
+    }
+
+    /**
+     * A matched route and the path to forward to it.
+     * @param route The route.
+     * @param path The request path with the route's prefix rewritten, or the request path itself.
+     * @param rewritten Whether {@code path} differs from the request path.
+     */
+    public record Match(GatewayRouteProperties.Route route, String path, boolean rewritten) {
+    }
+
+    public List<GatewayRouteProperties.Route> routes() {
+        return routes;
+    }
+
+    /**
+     * Matches the exchange's request path, once per exchange.
+     * @param exchange The exchange.
+     * @return The match, or null if no route serves the path.
+     */
+    public Match match(ServerWebExchange exchange) {
+        Object match = exchange.getAttributes().get(MATCH_ATTRIBUTE);
+        if (match == null) {
+            match = match(exchange.getRequest().getURI().getRawPath());
+            exchange.getAttributes().put(MATCH_ATTRIBUTE, match != null ? match : NO_MATCH);
+        }
+        return match != NO_MATCH ? (Match) match : null;
+    }
+
+    /**
+     * Finds the route with the longest prefix of the path.
+     * @param path The raw request path.
+     * @return The match, or null if no route serves the path.
+     */
+    public Match match(String path) {
+        Node node = root;
+        Target best = root.target;
+        int bestEnd = 0;
+        int start = 0;
+        while (start < path.length() && node != null) {
+            if (path.charAt(start) == '/') {
+                start++;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            node = node.child(path, start, end);
+            if (node != null && node.target != null) {
+                best = node.target;
+                bestEnd = end;
+            }
+            start = end;
+        }
+        if (best == null) {
+            return null;
+        }
+        if (best.rewriteTo == null) {
+            return new Match(best.route, path, false);
+        }
+        return new Match(best.route, best.rewriteTo + path.substring(bestEnd), true);
+    }
+
+    private void add(GatewayRouteProperties.Route route, String prefix) {
+        Node node = root;
+        for (String segment : segments(prefix)) {
+            node = node.getOrAddChild(segment);
+        }
+        if (node.target != null) {
+            throw new IllegalArgumentException("Path " + prefix + " belongs to routes "
+                    + node.target.route.id() + " and " + route.id());
+        }
+        String rewriteTo = route.rewriteTo() != null ? stripTrailingSlash(route.rewriteTo()) : null;
+        node.target = new Target(route, rewriteTo);
+    }
+
+    private static List<String> segments(String prefix) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : stripTrailingSlash(prefix).split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static String stripTrailingSlash(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static int hash(CharSequence path, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Target(GatewayRouteProperties.Route route, String rewriteTo) {
+    }
+
+    /**
+     * Trie node; children are kept in an open-addressing table keyed by segment.
+     */
+    private static final class Node {
+        private final String segment;
+        private final int hash;
+        private Node[] children = new Node[0];
+        private int size;
+        private Target target;
+
+        Node(String segment, int hash) {
+            this.segment = segment;
+            this.hash = hash;
+        }
+
+        Node child(String path, int start, int end) {
+            if (size == 0) {
+                return null;
+            }
+            int hash = hash(path, start, end);
+            int mask = children.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Node child = children[i];
+                if (child == null) {
+                    return null;
+                }
+                if (child.hash == hash && child.segment.length() == end - start
+                        && path.regionMatches(start, child.segment, 0, end - start)) {
+                    return child;
+                }
+            }
+        }
+
+        Node getOrAddChild(String segment) {
+            Node child = child(segment, 0, segment.length());
+            if (child != null) {
+                return child;
+            }
+            // Keep the table at most half full so probes stay short
+            if ((size + 1) * 2 > children.length) {
+                Node[] previous = children;
+                children = new Node[Math.max(4, previous.length * 2)];
+                for (Node node : previous) {
+                    if (node != null) {
+                        insert(node);
+                    }
+                }
+            }
+            child = new Node(segment, hash(segment, 0, segment.length()));
+            insert(child);
+            size++;
+            return child;
+        }
+
+        private void insert(Node node) {
+            int mask = children.length - 1;
+            int i = node.hash & mask;
+            while (children[i] != null) {
+                i = (i + 1) & mask;
+            }
+            children[i] = node;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.gateway.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private DisposableServer fastServer;
+    private DisposableServer slowServer;
+    private ServiceInstance fast;
+    private ServiceInstance slow;
+    private InstanceLatencies latencies;
+    private HedgingFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        fastServer = HttpServer.create().port(0)
+                .handle((request, response) -> response.sendString(Mono.just("fast")))
+                .bindNow();
+        slowServer = HttpServer.create().port(0)
+                .handle((request, response) -> {
+                    slowCalls.incrementAndGet();
+                    return response.sendString(Mono.just("slow").delayElement(Duration.ofSeconds(2)));
+                })
+                .bindNow();
+        fast = new DefaultServiceInstance("fast", "persons-service", "localhost", fastServer.port(), false);
+        slow = new DefaultServiceInstance("slow", "persons-service", "localhost", slowServer.port(), false);
+
+        LoadBalancingProperties properties = new LoadBalancingProperties(Duration.ofSeconds(10), Duration.ofSeconds(1),
+                new LoadBalancingProperties.Hedging(true, 0.95, Duration.ofMillis(10), Duration.ofMillis(100), 1.0));
+        latencies = new InstanceLatencies(properties, meterRegistry);
+        LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(null, "persons-service", latencies);
+        ReactiveLoadBalancer<ServiceInstance> reactiveLoadBalancer = request -> Mono.just(
+                request.getContext() instanceof LatencyAwareLoadBalancer.Excluding excluding
+                        ? loadBalancer.choose(List.of(fast, slow), excluding.instance())
+                        : new EmptyResponse());
+        LoadBalancerClientFactory clientFactory = mock(LoadBalancerClientFactory.class);
+        when(clientFactory.getInstance("persons-service")).thenReturn(reactiveLoadBalancer);
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+        when(headersFilters.getIfAvailable(any())).thenReturn(List.of());
+
+        HttpClient httpClient = HttpClient.create();
+        // The first call of a JVM is far slower than any hedging delay
+        httpClient.get().uri("http://localhost:" + fastServer.port()).responseContent().aggregate().asString()
+                .block(Duration.ofSeconds(5));
+        filter = new HedgingFilter(httpClient, headersFilters, new HttpClientProperties(), clientFactory,
+                latencies, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fastServer.disposeNow();
+        slowServer.disposeNow();
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, ServiceInstance chosen) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(chosen));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("http://localhost:" + chosen.getPort() + "/api/persons/1"));
+        return exchange;
+    }
+
+    // What NettyWriteResponseFilter would write
+    private static String body(MockServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        return connection.inbound().receive().aggregate().asString().block(Duration.ofSeconds(5));
+    }
+
+    private double hedges(String result) {
+        return meterRegistry.get("gateway.loadbalancer.hedges").tag("result", result).counter().count();
+    }
+
+    @Test
+    void whenChosenInstanceIsSlow_thenSecondInstanceAnswers() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/persons/1"), slow);
+
+        long start = System.nanoTime();
+        filter.filter(exchange, chained -> Mono.empty()).block(Duration.ofSeconds(5));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(exchange)).isEqualTo("fast");
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(exchange)).isTrue();
+        assertThat(slowCalls).hasValue(1);
+        assertThat(hedges("sent")).isEqualTo(1);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void whenHedgeAnswersFirst_thenChosenInstanceIsNotCreditedWithItsLatency() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/persons/1"), slow);
+        // As InstanceLatencyFilter leaves it
+        exchange.getAttributes().put(InstanceLatencyFilter.CALL_ATTR, latencies.start(slow));
+
+        filter.filter(exchange, chained -> Mono.empty()).block(Duration.ofSeconds(5));
+
+        assertThat(exchange.getAttributes()).doesNotContainKey(InstanceLatencyFilter.CALL_ATTR);
+        assertThat(requests(slow, "success")).isZero();
+        assertThat(requests(slow, "failure")).isZero();
+        assertThat(inFlight(slow)).isZero();
+        assertThat(requests(fast, "success")).isEqualTo(1);
+        assertThat(inFlight(fast)).isZero();
+    }
+
+    private long requests(ServiceInstance instance, String outcome) {
+        return meterRegistry.get("gateway.loadbalancer.requests")
+                .tag("instance", instance.getHost() + ":" + instance.getPort())
+                .tag("outcome", outcome)
+                .timer().count();
+    }
+
+    private double inFlight(ServiceInstance instance) {
+        return meterRegistry.get("gateway.loadbalancer.instance.in-flight")
+                .tag("instance", instance.getHost() + ":" + instance.getPort())
+                .gauge().value();
+    }
+
+    @Test
+    void whenChosenInstanceIsFast_thenNoHedgeIsSent() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/persons/1"), fast);
+
+        filter.filter(exchange, chained -> Mono.empty()).block(Duration.ofSeconds(5));
+
+        assertThat(body(exchange)).isEqualTo("fast");
+        assertThat(hedges("sent")).isZero();
+        assertThat(slowCalls).hasValue(0);
+    }
+
+    @Test
+    void whenRequestIsNotGet_thenItIsLeftToTheRoutingFilter() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/api/persons/1"), slow);
+        AtomicInteger chainCalls = new AtomicInteger();
+        GatewayFilterChain chain = chained -> {
+            chainCalls.incrementAndGet();
+            return Mono.empty();
+        };
+
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        assertThat(chainCalls).hasValue(1);
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(exchange)).isFalse();
+        assertThat(slowCalls).hasValue(0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.gateway.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTest {
+
+    private final AtomicLong clock = new AtomicLong(Duration.ofHours(1).toNanos());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ServiceInstance fast = instance("fast", 8081);
+    private final ServiceInstance slow = instance("slow", 8082);
+    private InstanceLatencies latencies;
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        latencies = new InstanceLatencies(new LoadBalancingProperties(Duration.ofSeconds(10), Duration.ofSeconds(1),
+                new LoadBalancingProperties.Hedging(true, 0.95, Duration.ofMillis(20), Duration.ofMillis(500), 0.1)),
+                meterRegistry, clock::get);
+        loadBalancer = new LatencyAwareLoadBalancer(null, "persons-service", latencies);
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "persons-service", "localhost", port, false);
+    }
+
+    private void respond(ServiceInstance instance, Duration latency) {
+        InstanceLatencies.Call call = latencies.start(instance);
+        clock.addAndGet(latency.toNanos());
+        call.completed(HttpStatus.OK);
+    }
+
+    private ServiceInstance choose(ServiceInstance... instances) {
+        return loadBalancer.choose(List.of(instances), null).getServer();
+    }
+
+    @Test
+    void whenInstanceIsSlow_thenItIsAvoided() {
+        respond(fast, Duration.ofMillis(10));
+        respond(slow, Duration.ofMillis(500));
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(choose(fast, slow)).isEqualTo(fast);
+        }
+    }
+
+    @Test
+    void whenInstanceHasCallsInFlight_thenAnIdleOneIsPreferred() {
+        respond(fast, Duration.ofMillis(10));
+        respond(slow, Duration.ofMillis(10));
+        latencies.start(fast);
+        latencies.start(fast);
+
+        assertThat(choose(fast, slow)).isEqualTo(slow);
+    }
+
+    @Test
+    void whenCallsFail_thenTheInstanceIsPenalized() {
+        respond(fast, Duration.ofMillis(50));
+        InstanceLatencies.Call call = latencies.start(slow);
+        clock.addAndGet(Duration.ofMillis(1).toNanos());
+        call.completed(HttpStatus.SERVICE_UNAVAILABLE);
+
+        assertThat(choose(fast, slow)).isEqualTo(fast);
+        assertThat(meterRegistry.get("gateway.loadbalancer.requests")
+                .tag("instance", "localhost:8082").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void whenSlowInstanceWasIdleForLong_thenItIsTriedAgain() {
+        respond(slow, Duration.ofMillis(500));
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        respond(fast, Duration.ofMillis(10));
+
+        assertThat(choose(fast, slow)).isEqualTo(slow);
+    }
+
+    @Test
+    void whenInstanceIsExcluded_thenAnotherIsChosen() {
+        respond(fast, Duration.ofMillis(10));
+        respond(slow, Duration.ofMillis(500));
+
+        assertThat(loadBalancer.choose(List.of(fast, slow), fast).getServer()).isEqualTo(slow);
+        assertThat(loadBalancer.choose(List.of(fast), fast).hasServer()).isFalse();
+    }
+
+    @Test
+    void whenEnoughResponsesWereSeen_thenPercentileIsKnown() {
+        for (int i = 1; i < 64; i++) {
+            respond(fast, Duration.ofMillis(i));
+        }
+        assertThat(latencies.percentile("persons-service", 0.95)).isNull();
+
+        respond(fast, Duration.ofMillis(64));
+
+        assertThat(latencies.percentile("persons-service", 0.95)).isEqualTo(Duration.ofMillis(61));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.gateway.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LocalTokenBucketRateLimiterTest {
+
+    private static final String KEY = "request_rate_limiter.{persons:10.0.0.1}.tat";
+    // 10 tokens per second, so one token every 100ms
+    private static final long EMISSION_INTERVAL = Duration.ofMillis(100).toNanos() / 1000;
+
+    private final AtomicLong clock = new AtomicLong(Duration.ofDays(20000).toNanos() / 1000);
+    // Global arrival times as the sync script keeps them in Redis
+    private final Map<String, Long> redis = new HashMap<>();
+    private ReactiveStringRedisTemplate redisTemplate;
+    private LocalTokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        rateLimiter = new LocalTokenBucketRateLimiter(redisTemplate,
+                new LocalTokenBucketRateLimiter.Config().setReplenishRate(10).setBurstCapacity(10),
+                Duration.ofHours(1), Duration.ofMillis(50), 0.5, Schedulers.immediate(), clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.close();
+    }
+
+    private Answer<Flux<List<Long>>> syncScript() {
+        return invocation -> {
+            List<String> keys = invocation.getArgument(1);
+            List<String> args = invocation.getArgument(2);
+            long now = Long.parseLong(args.get(args.size() - 1));
+            List<Long> tats = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                long tat = Math.min(Math.max(redis.getOrDefault(keys.get(i), now), now) + Long.parseLong(args.get(2 * i)),
+                        now + Long.parseLong(args.get(2 * i + 1)));
+                redis.put(keys.get(i), tat);
+                tats.add(tat);
+            }
+            return Flux.just(tats);
+        };
+    }
+
+    private RateLimiter.Response request() {
+        return rateLimiter.isAllowed("persons", "10.0.0.1").block();
+    }
+
+    @Test
+    void whenBurstIsUsed_thenRejectedUntilTokensReplenish() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(syncScript());
+        for (int i = 0; i < 10; i++) {
+            assertThat(request().isAllowed()).isTrue();
+        }
+
+        RateLimiter.Response rejected = request();
+        assertThat(rejected.isAllowed()).isFalse();
+        assertThat(rejected.getHeaders()).containsEntry(LocalTokenBucketRateLimiter.REMAINING_HEADER, "0")
+                .containsEntry(LocalTokenBucketRateLimiter.BURST_CAPACITY_HEADER, "10");
+        assertThat(rateLimiter.isAllowed("persons", "10.0.0.2").block().isAllowed()).isTrue();
+
+        clock.addAndGet(EMISSION_INTERVAL);
+        assertThat(request().isAllowed()).isTrue();
+        assertThat(request().isAllowed()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenWithinLocalShare_thenDecidesWithoutRedis() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(syncScript());
+        for (int i = 0; i < 4; i++) {
+            request();
+        }
+        verifyNoInteractions(redisTemplate);
+
+        request();
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)),
+                eq(List.of(String.valueOf(5 * EMISSION_INTERVAL), String.valueOf(10 * EMISSION_INTERVAL),
+                        String.valueOf(clock.get()))));
+    }
+
+    @Test
+    void whenSynced_thenUsageOfOtherInstancesIsEnforced() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(syncScript());
+        redis.put(KEY, clock.get() + 8 * EMISSION_INTERVAL);
+        request();
+
+        rateLimiter.sync().block();
+
+        assertThat(request().isAllowed()).isTrue();
+        assertThat(request().isAllowed()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenRedisIsSlow_thenLimitIsEnforcedLocallyAndReconciledLater() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.never())
+                .thenAnswer(syncScript());
+        request();
+        request();
+
+        rateLimiter.sync().block(Duration.ofSeconds(5));
+        for (int i = 0; i < 8; i++) {
+            assertThat(request().isAllowed()).isTrue();
+        }
+        assertThat(request().isAllowed()).isFalse();
+
+        rateLimiter.sync().block(Duration.ofSeconds(5));
+        assertThat(redis).containsEntry(KEY, clock.get() + 10 * EMISSION_INTERVAL);
+        assertThat(request().isAllowed()).isFalse();
+    }
+
+    @Test
+    void whenFullBucketIsDropped_thenNextRequestsUseANewOne() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(syncScript());
+        request();
+        rateLimiter.sync().block();
+        clock.addAndGet(10 * EMISSION_INTERVAL);
+
+        rateLimiter.sync().block();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(request().isAllowed()).isTrue();
+        }
+        assertThat(request().isAllowed()).isFalse();
+        rateLimiter.sync().block();
+        assertThat(redis).containsEntry(KEY, clock.get() + 10 * EMISSION_INTERVAL);
+    }
+
+    @Test
+    void whenRedisComesBackAfterAnOutage_thenAClientWithinItsRateIsNotLockedOut() {
+        AtomicBoolean redisDown = new AtomicBoolean(true);
+        Answer<Flux<List<Long>>> syncScript = syncScript();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(invocation ->
+                redisDown.get() ? Flux.error(new IllegalStateException("Redis is down")) : syncScript.answer(invocation));
+
+        // Ten minutes at exactly the replenish rate, syncing every second, first without Redis and then with it
+        for (int second = 0; second < 600; second++) {
+            if (second == 590) {
+                redisDown.set(false);
+            }
+            for (int i = 0; i < 10; i++) {
+                clock.addAndGet(EMISSION_INTERVAL);
+                assertThat(request().isAllowed()).as("request %d of second %d", i, second).isTrue();
+            }
+            rateLimiter.sync().block();
+        }
+        assertThat(redis.get(KEY)).isLessThanOrEqualTo(clock.get() + 10 * EMISSION_INTERVAL);
+    }
+}
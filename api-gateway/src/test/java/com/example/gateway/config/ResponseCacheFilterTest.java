@@ -0,0 +1,215 @@
+package com.example.gateway.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<ServerHttpRequest> backendRequests = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ResponseCacheFilter filter;
+    private HttpStatus backendStatus;
+    private HttpHeaders backendHeaders;
+    private String backendBody;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCache cache = new ResponseCache(DataSize.ofMegabytes(1).toBytes(), clock::get);
+        filter = new ResponseCacheFilter(cache,
+                new ResponseCacheProperties(true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(1)), meterRegistry);
+        backend(HttpStatus.OK, "max-age=60", "\"v1\"", "{\"id\":1}");
+    }
+
+    private void backend(HttpStatus status, String cacheControl, String eTag, String body) {
+        backendStatus = status;
+        backendHeaders = new HttpHeaders();
+        backendHeaders.setCacheControl(cacheControl);
+        if (eTag != null) {
+            backendHeaders.setETag(eTag);
+        }
+        backendBody = body;
+    }
+
+    private final GatewayFilterChain chain = exchange -> {
+        backendRequests.add(exchange.getRequest());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(backendStatus);
+        response.getHeaders().addAll(backendHeaders);
+        if (backendStatus == HttpStatus.NOT_MODIFIED) {
+            return response.writeWith(Flux.empty());
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(backendBody.getBytes(StandardCharsets.UTF_8))));
+    };
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private MockServerWebExchange send(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = exchange(request);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("gateway.response.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void whenResponseIsFresh_thenServedWithoutBackend() {
+        MockServerWebExchange first = send(MockServerHttpRequest.get("/api/persons/1"));
+        MockServerWebExchange second = send(MockServerHttpRequest.get("/api/persons/1"));
+
+        assertThat(backendRequests).hasSize(1);
+        assertThat(first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("MISS");
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("HIT");
+        assertThat(second.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void whenClientHasCurrentETag_thenNotModified() {
+        send(MockServerHttpRequest.get("/api/persons/1"));
+
+        MockServerWebExchange exchange = send(MockServerHttpRequest.get("/api/persons/1").ifNoneMatch("W/\"v1\""));
+
+        assertThat(backendRequests).hasSize(1);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEmpty();
+    }
+
+    @Test
+    void whenStaleEntryIsNotModified_thenServedFromCacheAfterRevalidation() {
+        send(MockServerHttpRequest.get("/api/persons/1"));
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+        backend(HttpStatus.NOT_MODIFIED, "max-age=60", "\"v1\"", null);
+
+        MockServerWebExchange revalidated = send(MockServerHttpRequest.get("/api/persons/1"));
+        MockServerWebExchange fresh = send(MockServerHttpRequest.get("/api/persons/1"));
+
+        assertThat(backendRequests).hasSize(2);
+        assertThat(backendRequests.get(1).getHeaders().getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(revalidated.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(revalidated.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("REVALIDATED");
+        assertThat(revalidated.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+        assertThat(fresh.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("HIT");
+    }
+
+    @Test
+    void whenStaleEntryChanged_thenNewResponseIsCached() {
+        send(MockServerHttpRequest.get("/api/persons/1"));
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+        backend(HttpStatus.OK, "max-age=60", "\"v2\"", "{\"id\":1,\"v\":2}");
+
+        send(MockServerHttpRequest.get("/api/persons/1"));
+        MockServerWebExchange exchange = send(MockServerHttpRequest.get("/api/persons/1"));
+
+        assertThat(backendRequests).hasSize(2);
+        assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("\"v2\"");
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1,\"v\":2}");
+    }
+
+    @Test
+    void whenBackendForbidsStoring_thenEveryRequestIsForwarded() {
+        backend(HttpStatus.OK, "no-cache, no-store, max-age=0, must-revalidate", "\"v1\"", "{\"id\":1}");
+
+        send(MockServerHttpRequest.get("/api/persons/1"));
+        send(MockServerHttpRequest.get("/api/persons/1"));
+
+        assertThat(backendRequests).hasSize(2);
+    }
+
+    @Test
+    void whenBodyExceedsEntrySize_thenNotCached() {
+        backend(HttpStatus.OK, "max-age=60", "\"v1\"", "x".repeat(2048));
+
+        MockServerWebExchange first = send(MockServerHttpRequest.get("/api/persons"));
+        send(MockServerHttpRequest.get("/api/persons"));
+
+        assertThat(first.getResponse().getBodyAsString().block()).hasSize(2048);
+        assertThat(backendRequests).hasSize(2);
+    }
+
+    @Test
+    void whenCallersDiffer_thenResponsesAreCachedSeparately() {
+        UsernamePasswordAuthenticationToken alice = new UsernamePasswordAuthenticationToken(
+                "alice", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        UsernamePasswordAuthenticationToken admin = new UsernamePasswordAuthenticationToken(
+                "alice", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        for (UsernamePasswordAuthenticationToken caller : List.of(alice, admin, alice)) {
+            ServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/persons/1"))
+                    .mutate().principal(Mono.just(caller)).build();
+            filter.filter(exchange, chain).block();
+        }
+        send(MockServerHttpRequest.get("/api/persons/1"));
+
+        assertThat(backendRequests).hasSize(3);
+    }
+
+    @Test
+    void whenResponseVaries_thenOnlyServedToMatchingRequests() {
+        backendHeaders.setVary(List.of("Accept-Language"));
+
+        send(MockServerHttpRequest.get("/api/persons/1").header("Accept-Language", "en"));
+        send(MockServerHttpRequest.get("/api/persons/1").header("Accept-Language", "de"));
+        MockServerWebExchange exchange = send(MockServerHttpRequest.get("/api/persons/1").header("Accept-Language", "de"));
+
+        assertThat(backendRequests).hasSize(2);
+        assertThat(exchange.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("HIT");
+    }
+
+    @Test
+    void whenClientAsksForNoCache_thenBypassed() {
+        send(MockServerHttpRequest.get("/api/persons/1"));
+
+        send(MockServerHttpRequest.get("/api/persons/1").header(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+        assertThat(backendRequests).hasSize(2);
+        assertThat(requests("bypass")).isEqualTo(1);
+    }
+
+    @Test
+    void whenResourceIsUpdated_thenItAndItsCollectionAreInvalidated() {
+        send(MockServerHttpRequest.get("/api/persons/1"));
+        send(MockServerHttpRequest.get("/api/persons").queryParam("page", "0"));
+        send(MockServerHttpRequest.get("/api/persons/2"));
+
+        MockServerWebExchange update = exchange(MockServerHttpRequest.put("/api/persons/1"));
+        filter.filter(update, exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().setComplete();
+        }).block();
+        send(MockServerHttpRequest.get("/api/persons/1"));
+        send(MockServerHttpRequest.get("/api/persons").queryParam("page", "0"));
+        send(MockServerHttpRequest.get("/api/persons/2"));
+
+        assertThat(backendRequests).hasSize(5);
+    }
+}
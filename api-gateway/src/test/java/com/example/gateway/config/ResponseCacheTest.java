@@ -0,0 +1,52 @@
+package com.example.gateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache(DataSize.ofMegabytes(1).toBytes(), () -> 0);
+    private final HttpHeaders requestHeaders = new HttpHeaders();
+
+    private ResponseCache.Entry put(ResponseCache.Key key) {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+        return cache.put(key, requestHeaders, responseHeaders, "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void whenPathIsInvalidated_thenEveryQueryAndScopeOfItIsDropped() {
+        ResponseCache.Key anonymous = new ResponseCache.Key("/api/persons", null, "");
+        ResponseCache.Key paged = new ResponseCache.Key("/api/persons", "page=1", "");
+        ResponseCache.Key user = new ResponseCache.Key("/api/persons", null, "user:[ROLE_USER]");
+        ResponseCache.Key other = new ResponseCache.Key("/api/persons/1", null, "");
+        put(anonymous);
+        put(paged);
+        put(user);
+        put(other);
+
+        cache.invalidate("/api/persons");
+
+        assertThat(cache.get(anonymous, requestHeaders)).isNull();
+        assertThat(cache.get(paged, requestHeaders)).isNull();
+        assertThat(cache.get(user, requestHeaders)).isNull();
+        assertThat(cache.get(other, requestHeaders)).isNotNull();
+    }
+
+    @Test
+    void whenPathIsStoredAgainAfterInvalidation_thenItCanBeInvalidatedAgain() {
+        ResponseCache.Key key = new ResponseCache.Key("/api/persons/1", null, "");
+        put(key);
+        cache.invalidate("/api/persons/1");
+        put(key);
+
+        cache.invalidate("/api/persons/1");
+
+        assertThat(cache.get(key, requestHeaders)).isNull();
+    }
+}
@@ -3,12 +3,14 @@ package com.example.gateway.config;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.test.context.ActiveProfiles;
-import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -19,6 +21,9 @@ class RouteConfigTest {
     @Autowired
     private RouteLocator routeLocator;
 
+    @Autowired
+    private RouteTable routeTable;
+
     @Test
     void shouldHaveAllRequiredRoutes() {
         List<Route> routes = routeLocator.getRoutes().collectList().block();
@@ -26,28 +31,48 @@ class RouteConfigTest {
 
         // Verify Persons Service Route
         Route personsRoute = routes.stream()
-            .filter(route -> route.getId().equals("persons_service"))
+            .filter(route -> route.getId().equals("persons"))
             .findFirst()
             .orElseThrow();
         assertThat(personsRoute.getUri().toString()).isEqualTo("lb://persons-service");
-        assertThat(personsRoute.getPredicate().toString()).contains("/api/persons/**");
+        assertThat(routeTable.match("/api/persons/1").route().id()).isEqualTo("persons");
 
         // Verify Image Requests Service Route
         Route imagesRoute = routes.stream()
-            .filter(route -> route.getId().equals("image_requests_service"))
+            .filter(route -> route.getId().equals("images"))
             .findFirst()
             .orElseThrow();
         assertThat(imagesRoute.getUri().toString()).isEqualTo("lb://image-requests-service");
-        assertThat(imagesRoute.getPredicate().toString()).contains("/api/images/**");
+        assertThat(routeTable.match("/api/images/1").path()).isEqualTo("/api/image-requests/1");
 
         // Verify Swagger UI Route
         Route swaggerRoute = routes.stream()
-            .filter(route -> route.getId().equals("swagger_ui"))
+            .filter(route -> route.getId().equals("persons-docs"))
             .findFirst()
             .orElseThrow();
         assertThat(swaggerRoute.getUri().toString()).isEqualTo("lb://persons-service");
-        assertThat(swaggerRoute.getPredicate().toString())
-            .contains("/swagger-ui/**")
-            .contains("/v3/api-docs/**");
+        assertThat(routeTable.match("/swagger-ui/index.html").route().id()).isEqualTo("persons-docs");
+        assertThat(routeTable.match("/v3/api-docs").route().id()).isEqualTo("persons-docs");
+    }
+
+    @Test
+    void whenRouteIsCached_thenRequestsAreRateLimitedBeforeTheCacheAnswers() {
+        Route personsRoute = routeLocator.getRoutes()
+            .filter(route -> route.getId().equals("persons"))
+            .blockFirst();
+        assertThat(personsRoute).isNotNull();
+
+        int rateLimiter = order(personsRoute, filter -> filter.toString().contains("RequestRateLimiter"));
+        int responseCache = order(personsRoute, filter -> filter instanceof ResponseCacheFilter);
+        assertThat(rateLimiter).isLessThan(responseCache);
+    }
+
+    private static int order(Route route, Predicate<GatewayFilter> filter) {
+        return route.getFilters().stream()
+            .map(OrderedGatewayFilter.class::cast)
+            .filter(ordered -> filter.test(ordered.getDelegate()))
+            .findFirst()
+            .orElseThrow()
+            .getOrder();
     }
-} 
\ No newline at end of file
+}
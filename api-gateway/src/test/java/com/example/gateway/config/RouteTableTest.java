@@ -0,0 +1,63 @@
+package com.example.gateway.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteTableTest {
+
+    private static GatewayRouteProperties.Route route(String id, String rewriteTo, String... paths) {
+        return new GatewayRouteProperties.Route(id, URI.create("lb://" + id), List.of(paths), rewriteTo, null, false, false);
+    }
+
+    private final RouteTable routeTable = new RouteTable(List.of(
+            route("persons", null, "/api/persons"),
+            route("images", "/api/image-requests", "/api/images", "/api/image-requests"),
+            route("person-images", "/images/", "/api/persons/images/")));
+
+    @Test
+    void whenPathIsBelowPrefix_thenRouteMatches() {
+        RouteTable.Match match = routeTable.match("/api/persons/1");
+
+        assertThat(match.route().id()).isEqualTo("persons");
+        assertThat(match.path()).isEqualTo("/api/persons/1");
+        assertThat(match.rewritten()).isFalse();
+        assertThat(routeTable.match("/api/persons").route().id()).isEqualTo("persons");
+        assertThat(routeTable.match("/api/persons/").route().id()).isEqualTo("persons");
+    }
+
+    @Test
+    void whenPrefixesNest_thenLongestWins() {
+        RouteTable.Match match = routeTable.match("/api/persons/images/7");
+
+        assertThat(match.route().id()).isEqualTo("person-images");
+        assertThat(match.path()).isEqualTo("/images/7");
+    }
+
+    @Test
+    void whenRouteRewrites_thenPrefixIsReplaced() {
+        assertThat(routeTable.match("/api/images/5").path()).isEqualTo("/api/image-requests/5");
+        assertThat(routeTable.match("/api/images").path()).isEqualTo("/api/image-requests");
+        assertThat(routeTable.match("/api/image-requests/5").path()).isEqualTo("/api/image-requests/5");
+    }
+
+    @Test
+    void whenOnlyPartOfSegmentMatches_thenNoRoute() {
+        assertThat(routeTable.match("/api/personsx/1")).isNull();
+        assertThat(routeTable.match("/api")).isNull();
+        assertThat(routeTable.match("/")).isNull();
+    }
+
+    @Test
+    void whenPrefixBelongsToTwoRoutes_thenRejected() {
+        assertThatThrownBy(() -> new RouteTable(List.of(
+                route("a", null, "/api/a"),
+                route("b", null, "/api/a/"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("/api/a/");
+    }
+}
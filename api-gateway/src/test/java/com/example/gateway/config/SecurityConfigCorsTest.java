@@ -0,0 +1,20 @@
+package com.example.gateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.cors.CorsConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityConfigCorsTest {
+
+    private final CorsConfiguration configuration = new SecurityConfig().corsConfigurationSource()
+            .getCorsConfiguration(MockServerWebExchange.from(MockServerHttpRequest.options("/api/persons/1")));
+
+    @Test
+    void whenCheckingCorsMethods_thenPatchIsAllowed() {
+        assertThat(configuration.checkHttpMethod(HttpMethod.PATCH)).contains(HttpMethod.PATCH);
+    }
+}
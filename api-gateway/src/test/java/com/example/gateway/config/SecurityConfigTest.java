@@ -55,4 +55,4 @@ class SecurityConfigTest {
             .exchange()
             .expectStatus().isOk();
     }
-} 
\ No newline at end of file
+}
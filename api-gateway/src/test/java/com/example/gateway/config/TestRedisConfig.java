@@ -22,8 +22,8 @@ public class TestRedisConfig {
         redisContainer = new GenericContainer<>(DockerImageName.parse("redis:6.2-alpine"))
             .withExposedPorts(REDIS_PORT);
         redisContainer.start();
-        System.setProperty("spring.redis.host", redisContainer.getHost());
-        System.setProperty("spring.redis.port", String.valueOf(redisContainer.getMappedPort(REDIS_PORT)));
+        System.setProperty("spring.data.redis.host", redisContainer.getHost());
+        System.setProperty("spring.data.redis.port", String.valueOf(redisContainer.getMappedPort(REDIS_PORT)));
     }
 
     @PreDestroy
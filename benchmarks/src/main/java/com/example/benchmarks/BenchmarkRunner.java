@@ -0,0 +1,55 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Entry point of the benchmarks jar.
+ * Accepts the regular JMH command line, always attaches the GC profiler and, unless
+ * {@code -rf}/{@code -rff} are given, writes JSON results to
+ * {@code target/jmh-results/jmh-<commit>.json} so runs can be compared commit by commit.
+ * The commit is taken from the {@code benchmarks.commit} system property or the
+ * {@code GIT_COMMIT} environment variable.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        boolean gcProfilerRequested = commandLine.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc")
+                        || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcProfilerRequested) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Path resultFile = Path.of(System.getProperty("benchmarks.results.dir", "target/jmh-results"),
+                    "jmh-" + commit() + ".json");
+            Files.createDirectories(resultFile.getParent());
+            options.result(resultFile.toString());
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static String commit() {
+        String commit = System.getProperty("benchmarks.commit", System.getenv("GIT_COMMIT"));
+        return commit != null && !commit.isBlank() ? commit : "local";
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.benchmarks.gateway;
+
+import com.example.gateway.config.JwtAuthenticationConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a decoded JWT into the gateway's authentication token, which runs for
+ * every authenticated exchange. {@code realmRoles} carries Keycloak-style realm roles in
+ * addition to scopes; {@code scopesOnly} does not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationConverterBenchmark {
+    private JwtAuthenticationConverter converter;
+    private Jwt realmRolesJwt;
+    private Jwt scopesOnlyJwt;
+
+    @Setup
+    public void setUp() {
+        converter = new JwtAuthenticationConverter();
+        realmRolesJwt = jwt()
+                .claim("realm_access", Map.of("roles", List.of("user", "admin", "persons-editor")))
+                .build();
+        scopesOnlyJwt = jwt().build();
+    }
+
+    private static Jwt.Builder jwt() {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("benchmark-token")
+                .header("alg", "RS256")
+                .subject("benchmark-user")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("scope", "persons:read persons:write images:read");
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken realmRoles() {
+        return converter.convert(realmRolesJwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken scopesOnly() {
+        return converter.convert(scopesOnlyJwt);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.benchmarks.gateway;
+
+import com.example.gateway.config.LocalTokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one RequestRateLimiter decision of the gateway, for a client that is within
+ * ({@code allowed}) or over ({@code rejected}) its limit.
+ * <ul>
+ *     <li>{@code local}: {@link LocalTokenBucketRateLimiter}, which decides in process; its background
+ *     reconciliation runs against an in-memory Redis stand-in.</li>
+ *     <li>{@code redis}: Spring Cloud Gateway's RedisRateLimiter, which runs its script for every
+ *     request, against a stand-in that evaluates the script in memory after {@code redisLatencyMicros},
+ *     the round trip to Redis (0 isolates the limiter's own overhead).</li>
+ *     <li>{@code localContended}: eight threads taking tokens from the same client's bucket, which
+ *     is what a single busy client costs at tens of thousands of requests per second.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+    private static final String ROUTE = "persons";
+    private static final String CLIENT = "10.0.0.1";
+
+    @Benchmark
+    public RateLimiter.Response local(LocalState state) {
+        return state.limiter.isAllowed(ROUTE, CLIENT).block();
+    }
+
+    @Benchmark
+    public RateLimiter.Response redis(RedisState state) {
+        return state.limiter.isAllowed(ROUTE, CLIENT).block();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public RateLimiter.Response localContended(ContendedState state) {
+        return state.limiter.isAllowed(ROUTE, CLIENT).block();
+    }
+
+    // Limits that never run out, or that the first request uses up
+    private static int replenishRate(String outcome) {
+        return outcome.equals("allowed") ? 1_000_000 : 1;
+    }
+
+    private static int burstCapacity(String outcome) {
+        return outcome.equals("allowed") ? Integer.MAX_VALUE : 1;
+    }
+
+    private static LocalTokenBucketRateLimiter localLimiter(String outcome) {
+        LocalTokenBucketRateLimiter limiter = new LocalTokenBucketRateLimiter(new SyncScriptTemplate(),
+                replenishRate(outcome), burstCapacity(outcome), Duration.ofMillis(100), Duration.ofMillis(200), 0.1);
+        limiter.isAllowed(ROUTE, CLIENT).block();
+        return limiter;
+    }
+
+    /**
+     * The gateway's limiter.
+     */
+    @State(Scope.Benchmark)
+    public static class LocalState {
+        @Param({"allowed", "rejected"})
+        public String outcome;
+
+        LocalTokenBucketRateLimiter limiter;
+
+        @Setup
+        public void setUp() {
+            limiter = localLimiter(outcome);
+        }
+
+        @TearDown
+        public void tearDown() {
+            limiter.close();
+        }
+    }
+
+    /**
+     * The gateway's limiter for a client whose requests are always allowed.
+     */
+    @State(Scope.Benchmark)
+    public static class ContendedState {
+        LocalTokenBucketRateLimiter limiter;
+
+        @Setup
+        public void setUp() {
+            limiter = localLimiter("allowed");
+        }
+
+        @TearDown
+        public void tearDown() {
+            limiter.close();
+        }
+    }
+
+    /**
+     * RedisRateLimiter as the gateway used it before.
+     */
+    @State(Scope.Benchmark)
+    public static class RedisState {
+        @Param({"allowed", "rejected"})
+        public String outcome;
+
+        @Param({"0", "250"})
+        public long redisLatencyMicros;
+
+        RedisRateLimiter limiter;
+
+        @Setup
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public void setUp() {
+            RedisScript<List<Long>> script = (RedisScript) RedisScript.of(
+                    new ClassPathResource("META-INF/scripts/request_rate_limiter.lua"), List.class);
+            limiter = new RedisRateLimiter(new TokenBucketScriptTemplate(Duration.ofNanos(redisLatencyMicros * 1000)),
+                    script, null);
+            limiter.getConfig().put(ROUTE, new RedisRateLimiter.Config()
+                    .setReplenishRate(replenishRate(outcome))
+                    .setBurstCapacity(burstCapacity(outcome))
+                    .setRequestedTokens(1));
+            limiter.isAllowed(ROUTE, CLIENT).block();
+        }
+    }
+
+    /**
+     * ReactiveStringRedisTemplate that evaluates LocalTokenBucketRateLimiter's sync script against a map.
+     */
+    private static final class SyncScriptTemplate extends ReactiveStringRedisTemplate {
+        private final Map<String, Long> tats = new ConcurrentHashMap<>();
+
+        SyncScriptTemplate() {
+            super(new LettuceConnectionFactory());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Flux<T> execute(RedisScript<T> script, List<String> keys, List<?> args) {
+            long now = Long.parseLong((String) args.get(args.size() - 1));
+            List<Long> result = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                long increment = Long.parseLong((String) args.get(2 * i));
+                long capacity = Long.parseLong((String) args.get(2 * i + 1));
+                result.add(tats.merge(keys.get(i), Math.min(now + increment, now + capacity),
+                        (tat, added) -> Math.min(Math.max(tat, now) + increment, now + capacity)));
+            }
+            return Flux.just((T) result);
+        }
+    }
+
+    /**
+     * ReactiveStringRedisTemplate that evaluates RedisRateLimiter's token bucket script against a map,
+     * answering after a simulated round trip.
+     */
+    private static final class TokenBucketScriptTemplate extends ReactiveStringRedisTemplate {
+        // Tokens and time of the last refill by tokens key
+        private final Map<String, double[]> buckets = new ConcurrentHashMap<>();
+        private final Duration latency;
+
+        TokenBucketScriptTemplate(Duration latency) {
+            super(new LettuceConnectionFactory());
+            this.latency = latency;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Flux<T> execute(RedisScript<T> script, List<String> keys, List<?> args) {
+            Flux<T> result = Flux.defer(() -> Flux.just((T) evaluate(keys.get(0), args)));
+            return latency.isZero() ? result : result.delaySubscription(latency);
+        }
+
+        private List<Long> evaluate(String key, List<?> args) {
+            double rate = Double.parseDouble((String) args.get(0));
+            double capacity = Double.parseDouble((String) args.get(1));
+            double requested = Double.parseDouble((String) args.get(3));
+            double now = System.currentTimeMillis() / 1000;
+            long[] allowed = new long[1];
+            double[] bucket = buckets.compute(key, (k, last) -> {
+                double lastTokens = last == null ? capacity : last[0];
+                double lastRefreshed = last == null ? 0 : last[1];
+                double filled = Math.min(capacity, lastTokens + Math.max(0, now - lastRefreshed) * rate);
+                allowed[0] = filled >= requested ? 1 : 0;
+                return new double[] {filled >= requested ? filled - requested : filled, now};
+            });
+            return List.of(allowed[0], (long) bucket[0]);
+        }
+    }
+}
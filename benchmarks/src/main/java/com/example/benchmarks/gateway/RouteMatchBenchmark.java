@@ -0,0 +1,99 @@
+package com.example.benchmarks.gateway;
+
+import com.example.gateway.config.GatewayRouteProperties;
+import com.example.gateway.config.RouteTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of finding the route of a request path and rewriting it, with {@code routes} routes of
+ * which every fourth rewrites its prefix. {@code pathPatternScan} is what the previous
+ * Path/RewritePath route definitions did: test each route's {@code /prefix/**} pattern in turn,
+ * then apply the matched route's rewrite regex. {@code routeTable} is {@link RouteTable#match(String)}.
+ * Each operation looks up one of eight paths spread over the table, one of which matches no route.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteMatchBenchmark {
+    private static final int PATHS = 8;
+
+    @Param({"3", "128"})
+    private int routes;
+
+    private RouteTable routeTable;
+    private List<ScannedRoute> scannedRoutes;
+    private String[] paths;
+    private int next;
+
+    private record ScannedRoute(String id, PathPattern pattern, Pattern rewrite, String replacement) {
+    }
+
+    @Setup
+    public void setUp() {
+        PathPatternParser parser = new PathPatternParser();
+        List<GatewayRouteProperties.Route> definitions = new ArrayList<>(routes);
+        scannedRoutes = new ArrayList<>(routes);
+        for (int i = 0; i < routes; i++) {
+            String id = "service-" + i;
+            String prefix = "/api/" + id;
+            String rewriteTo = i % 4 == 0 ? "/api/v2/" + id : null;
+            definitions.add(new GatewayRouteProperties.Route(
+                    id, URI.create("lb://" + id), List.of(prefix), rewriteTo, null, false, false));
+            scannedRoutes.add(new ScannedRoute(id, parser.parse(prefix + "/**"),
+                    rewriteTo != null ? Pattern.compile(prefix + "(?<segment>/?.*)") : null,
+                    rewriteTo != null ? rewriteTo + "${segment}" : null));
+        }
+        routeTable = new RouteTable(definitions);
+        paths = new String[PATHS];
+        for (int i = 0; i < PATHS - 1; i++) {
+            paths[i] = "/api/service-" + (i * (routes - 1) / (PATHS - 2)) + "/items/" + (1000 + i) + "/details";
+        }
+        paths[PATHS - 1] = "/api/unknown/items/1";
+    }
+
+    private String nextPath() {
+        String path = paths[next];
+        next = (next + 1) % PATHS;
+        return path;
+    }
+
+    @Benchmark
+    public String pathPatternScan() {
+        String path = nextPath();
+        PathContainer container = PathContainer.parsePath(path);
+        for (ScannedRoute route : scannedRoutes) {
+            if (route.pattern().matches(container)) {
+                return route.rewrite() != null ? route.rewrite().matcher(path).replaceAll(route.replacement()) : path;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String routeTable() {
+        RouteTable.Match match = routeTable.match(nextPath());
+        return match != null ? match.path() : null;
+    }
+}
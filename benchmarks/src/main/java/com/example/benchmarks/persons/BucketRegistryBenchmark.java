@@ -0,0 +1,84 @@
+package com.example.benchmarks.persons;
+
+import com.example.persons.config.BucketRegistry;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucket lookup plus one token consumption for 10k distinct clients, eight threads at once.
+ * <ul>
+ *     <li>{@code registry}: the bounded Caffeine-backed BucketRegistry used by RateLimitFilter.</li>
+ *     <li>{@code synchronizedLru}: a synchronized access-ordered LinkedHashMap, the textbook
+ *     bounded alternative, which serializes every lookup.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class BucketRegistryBenchmark {
+    private static final int CLIENTS = 10_000;
+
+    private String[] clientKeys;
+    private BucketConfiguration configuration;
+    private BucketRegistry registry;
+    private Map<String, Bucket> synchronizedLru;
+
+    @Setup
+    public void setUp() {
+        clientKeys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clientKeys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+        configuration = BucketConfiguration.builder()
+                .addLimit(limit -> limit.capacity(1_000_000_000L).refillGreedy(1_000_000_000L, Duration.ofSeconds(1)))
+                .build();
+        registry = new BucketRegistry(() -> configuration, 100_000, Duration.ofMinutes(10), null);
+        synchronizedLru = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > 100_000;
+            }
+        });
+        for (String clientKey : clientKeys) {
+            registry.resolve(clientKey);
+            synchronizedLru.put(clientKey, Bucket.builder().addLimit(configuration.getBandwidths()[0]).build());
+        }
+    }
+
+    private String nextClient() {
+        return clientKeys[ThreadLocalRandom.current().nextInt(CLIENTS)];
+    }
+
+    @Benchmark
+    public boolean registry() {
+        return registry.resolve(nextClient()).tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean synchronizedLru() {
+        return synchronizedLru.computeIfAbsent(nextClient(),
+                key -> Bucket.builder().addLimit(configuration.getBandwidths()[0]).build()).tryConsume(1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.benchmarks.persons;
+
+import com.example.persons.config.CompactPersonSerializer;
+import com.example.persons.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the values persons-service stores in its Redis caches: one Person ("person",
+ * "personByEmail") and a 20-element {@code Page<Person>} ("persons"), with the previous JDK
+ * serialization and with {@link CompactPersonSerializer} ({@code cache.serializer}).
+ * The entry sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializerBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"jdk", "compact"})
+    private String format;
+
+    private RedisSerializer<Object> serializer;
+    private Person person;
+    private Page<Person> page;
+    private byte[] personEntry;
+    private byte[] pageEntry;
+
+    @Setup
+    public void setUp() {
+        serializer = format.equals("jdk") ? new JdkSerializationRedisSerializer() : new CompactPersonSerializer();
+        person = PersonJsonBenchmark.person(1);
+        List<Person> content = new ArrayList<>(PAGE_SIZE);
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            content.add(PersonJsonBenchmark.person(i));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), 1000);
+        personEntry = serializer.serialize(person);
+        pageEntry = serializer.serialize(page);
+        System.out.printf("%n%s entry sizes: person %d bytes, page %d bytes%n",
+                format, personEntry.length, pageEntry.length);
+    }
+
+    @Benchmark
+    public byte[] serializePerson() {
+        return serializer.serialize(person);
+    }
+
+    @Benchmark
+    public Object deserializePerson() {
+        return serializer.deserialize(personEntry);
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return serializer.serialize(page);
+    }
+
+    @Benchmark
+    public Object deserializePage() {
+        return serializer.deserialize(pageEntry);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.benchmarks.persons;
+
+import com.example.persons.config.JwtAuthenticationFilter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request in persons-service.
+ * <ul>
+ *     <li>{@code legacyParseTwice}: the previous filter logic, which derived the key, built a parser
+ *     and verified the token twice per request.</li>
+ *     <li>{@code filterUncached}: the current filter with its verified-token cache disabled,
+ *     i.e. a single verification pass with the prebuilt parser.</li>
+ *     <li>{@code filterCached}: the current filter for a bearer it has already verified.</li>
+ * </ul>
+ * The runner attaches the GC profiler, so allocations per operation are reported as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private String token;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() throws Exception {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = Jwts.builder()
+                .subject("benchmark-user")
+                .claim("authorities", List.of("ROLE_USER", "ROLE_ADMIN"))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key)
+                .compact();
+
+        uncachedFilter = new JwtAuthenticationFilter(SECRET, 0, Duration.ofMinutes(5));
+        cachedFilter = new JwtAuthenticationFilter(SECRET, 10_000, Duration.ofMinutes(5));
+
+        request = new MockHttpServletRequest("GET", "/api/persons/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+
+        // Prime the cache so filterCached measures repeat bearers only
+        cachedFilter.doFilter(request, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void legacyParseTwice(Blackhole blackhole) {
+        SecretKey validationKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        blackhole.consume(Jwts.parser().verifyWith(validationKey).build().parseSignedClaims(token));
+        SecretKey parsingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Claims claims = Jwts.parser().verifyWith(parsingKey).build().parseSignedClaims(token).getPayload();
+        blackhole.consume(claims.getSubject());
+        blackhole.consume(claims.get("authorities", List.class));
+    }
+
+    @Benchmark
+    public void filterUncached(Blackhole blackhole) throws Exception {
+        uncachedFilter.doFilter(request, response, NO_OP_CHAIN);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void filterCached(Blackhole blackhole) throws Exception {
+        cachedFilter.doFilter(request, response, NO_OP_CHAIN);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.benchmarks.persons;
+
+import com.example.persons.model.Person;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the Person payloads persons-service reads and writes.
+ * The mapper is configured like Spring Boot's default one (Java time module, ISO dates).
+ * {@code page} measures a 20-element list, the default page size of the list endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonJsonBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectWriter personWriter;
+    private ObjectReader personReader;
+    private ObjectWriter pageWriter;
+    private Person person;
+    private List<Person> page;
+    private byte[] personJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        personWriter = objectMapper.writerFor(Person.class);
+        personReader = objectMapper.readerFor(Person.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Person.class));
+
+        person = person(1);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            page.add(person(i));
+        }
+        personJson = personWriter.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public byte[] serializePerson() throws Exception {
+        return personWriter.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public Person deserializePerson() throws Exception {
+        return personReader.readValue(personJson);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    static Person person(long id) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName("Benchmark Person " + id);
+        person.setEmail("person" + id + "@example.com");
+        person.setPhoneNumber("+4915112345" + String.format("%03d", id % 1000));
+        person.setAddress("Example Street " + id + ", 10115 Berlin");
+        person.setAge(30 + (int) (id % 40));
+        person.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        person.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 12, 0));
+        person.setVersion(3L);
+        return person;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.benchmarks.persons;
+
+import com.example.persons.model.Person;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation of Person as done for every create/update request and for each
+ * row of a bulk ingest. {@code invalidPerson} breaks every constraint, which exercises
+ * message interpolation, the expensive part of a rejection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonValidationBenchmark {
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Person validPerson;
+    private Person invalidPerson;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        validPerson = PersonJsonBenchmark.person(1);
+
+        invalidPerson = new Person();
+        invalidPerson.setName("X");
+        invalidPerson.setEmail("not-an-email");
+        invalidPerson.setPhoneNumber("12-34");
+        invalidPerson.setAddress("a".repeat(501));
+        invalidPerson.setAge(200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Person>> validPerson() {
+        return validator.validate(validPerson);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Person>> invalidPerson() {
+        return validator.validate(invalidPerson);
+    }
+}
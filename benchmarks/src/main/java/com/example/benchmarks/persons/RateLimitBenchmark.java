@@ -0,0 +1,176 @@
+package com.example.benchmarks.persons;
+
+import com.example.persons.config.BucketRegistry;
+import com.example.persons.config.HybridRateLimiter;
+import com.example.persons.config.RateLimitDecision;
+import com.example.persons.config.RateLimitFilter;
+import com.example.persons.config.RateLimitProperties;
+import com.example.persons.config.RateLimiter;
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decision cost of RateLimitFilter, the single rate limiting point of persons-service.
+ * <ul>
+ *     <li>{@code filterAllowed}/{@code filterRejected}: bucket mode, for a client whose bucket
+ *     always/never has tokens left.</li>
+ *     <li>{@code filterWithPolicies}: bucket mode with the endpoint policies of application.yml,
+ *     for a request that matches none of them (the worst case of policy matching).</li>
+ *     <li>{@code hybridFilter}: hybrid mode, for a client that is within ({@code allowed}) or over
+ *     ({@code rejected}) its limit. The hybrid limiter decides in process; its background
+ *     reconciliation runs against an in-memory Redis stand-in.</li>
+ *     <li>{@code limiterContended}: four threads acquiring from the hybrid limiter for the same client.</li>
+ * </ul>
+ * Every filter records its decisions in a meter registry, as in the service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private RateLimitFilter allowingFilter;
+    private RateLimitFilter rejectingFilter;
+    private RateLimitFilter policyFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() throws Exception {
+        allowingFilter = filter(registry(1_000_000_000L), List.of());
+        rejectingFilter = filter(registry(1), List.of());
+        policyFilter = filter(registry(1_000_000_000L), List.of(
+                new RateLimitProperties.Policy("bulk-ingest", List.of("POST"), "/api/persons/bulk", 20),
+                new RateLimitProperties.Policy("import", List.of("POST"), "/api/persons/import", 50),
+                new RateLimitProperties.Policy("export", List.of("GET"), "/api/persons/export", 10)));
+
+        request = new MockHttpServletRequest("GET", "/api/persons/1");
+        request.setRemoteAddr("10.0.0.1");
+        response = new MockHttpServletResponse();
+        // Exhaust the single token of the rejecting filter's bucket
+        rejectingFilter.doFilter(request, response, NO_OP_CHAIN);
+    }
+
+    private static RateLimitFilter filter(RateLimiter rateLimiter,
+                                          List<RateLimitProperties.Policy> policies) {
+        return new RateLimitFilter(rateLimiter, RateLimitFilter.ClientKey.IP, List.of(), policies,
+                new SimpleMeterRegistry());
+    }
+
+    private static BucketRegistry registry(long capacity) {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(limit -> limit.capacity(capacity).refillIntervally(capacity, Duration.ofDays(1)))
+                .build();
+        return new BucketRegistry(() -> configuration, 100_000, Duration.ofMinutes(10), null);
+    }
+
+    @Benchmark
+    public int filterAllowed() throws Exception {
+        response.reset();
+        allowingFilter.doFilter(request, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int filterRejected() throws Exception {
+        response.reset();
+        rejectingFilter.doFilter(request, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int filterWithPolicies() throws Exception {
+        response.reset();
+        policyFilter.doFilter(request, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int hybridFilter(LimiterState state) throws Exception {
+        response.reset();
+        state.filter.doFilter(request, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RateLimitDecision limiterContended(LimiterState state) {
+        return state.limiter.tryAcquire("ip:10.0.0.1", 1);
+    }
+
+    /**
+     * Limiter reconciling with an in-memory stand-in for Redis.
+     */
+    @State(Scope.Benchmark)
+    public static class LimiterState {
+        @Param({"allowed", "rejected"})
+        public String outcome;
+
+        ThreadPoolTaskScheduler scheduler;
+        HybridRateLimiter limiter;
+        RateLimitFilter filter;
+
+        @Setup
+        public void setUp() {
+            scheduler = new ThreadPoolTaskScheduler();
+            scheduler.initialize();
+            long maxRequests = outcome.equals("allowed") ? Long.MAX_VALUE / 2 : 1;
+            limiter = new HybridRateLimiter(new InMemoryRedisTemplate(), scheduler, "rate_limit:",
+                    maxRequests, Duration.ofMinutes(1), Duration.ofMillis(100), 0.1);
+            limiter.tryAcquire("ip:10.0.0.1", 1);
+            filter = filter(limiter, List.of());
+        }
+
+        @TearDown
+        public void tearDown() {
+            limiter.close();
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * RedisTemplate that evaluates the limiter's reconciliation script against a map.
+     */
+    private static final class InMemoryRedisTemplate extends RedisTemplate<String, String> {
+        private final Map<String, Long> counts = new ConcurrentHashMap<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            List<Long> totals = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                totals.add(counts.merge(keys.get(i), Long.parseLong((String) args[i]), Long::sum));
+            }
+            return (T) totals;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+// Load test comparing platform-thread and virtual-thread request handling.
+// 2,000 concurrent clients read (GET /api/persons/{id}) and create (POST /api/persons) persons.
+// Start the service once per mode with rate limiting off, then run:
+//   k6 run -e BASE_URL=http://localhost:8081 -e JWT_SECRET=<jwt.secret> \
+//       --summary-export=load-<mode>.json benchmark/load-test.js
+// See "Virtual threads" in README.md for the full procedure.
+import http from 'k6/http';
+import crypto from 'k6/crypto';
+import encoding from 'k6/encoding';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const CLIENTS = parseInt(__ENV.CLIENTS || '2000');
+const SEED_PERSONS = parseInt(__ENV.SEED_PERSONS || '1000');
+const WRITE_RATIO = parseFloat(__ENV.WRITE_RATIO || '0.2');
+
+export const options = {
+    setupTimeout: '5m',
+    scenarios: {
+        mixed: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: CLIENTS },
+                { duration: __ENV.DURATION || '3m', target: CLIENTS },
+                { duration: '10s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        'http_req_duration{name:get}': ['p(99)<2000'],
+        'http_req_duration{name:create}': ['p(99)<2000'],
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+// HS256 token in the format JwtAuthenticationFilter verifies
+function token() {
+    const now = Math.floor(Date.now() / 1000);
+    const header = encoding.b64encode(JSON.stringify({ alg: 'HS256', typ: 'JWT' }), 'rawurl');
+    const payload = encoding.b64encode(JSON.stringify({
+        sub: 'load-test',
+        authorities: ['ROLE_USER', 'ROLE_ADMIN'],
+        iat: now,
+        exp: now + 3600,
+    }), 'rawurl');
+    const signature = crypto.hmac('sha256', __ENV.JWT_SECRET, `${header}.${payload}`, 'base64rawurl');
+    return `${header}.${payload}.${signature}`;
+}
+
+function person(suffix) {
+    return JSON.stringify({
+        name: `Load Test ${suffix}`,
+        email: `load-${suffix}@example.com`,
+        phoneNumber: '+15550100000',
+        age: 30,
+    });
+}
+
+export function setup() {
+    const headers = { 'Content-Type': 'application/json', Authorization: `Bearer ${token()}` };
+    const ids = [];
+    for (let i = 0; i < SEED_PERSONS; i++) {
+        const response = http.post(`${BASE_URL}/api/persons`, person(`seed-${Date.now()}-${i}`), { headers });
+        if (response.status === 201) {
+            ids.push(response.json('id'));
+        }
+    }
+    if (ids.length === 0) {
+        throw new Error('Could not seed persons; check BASE_URL, JWT_SECRET and that rate limiting is off');
+    }
+    return { headers, ids };
+}
+
+export default function (data) {
+    if (Math.random() < WRITE_RATIO) {
+        const response = http.post(`${BASE_URL}/api/persons`, person(`${__VU}-${__ITER}-${Date.now()}`),
+            { headers: data.headers, tags: { name: 'create' } });
+        check(response, { created: (r) => r.status === 201 });
+    } else {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        const response = http.get(`${BASE_URL}/api/persons/${id}`, { tags: { name: 'get' } });
+        check(response, { found: (r) => r.status === 200 });
+    }
+}
@@ -0,0 +1,45 @@
+-- Search benchmark for TrigramPersonSearchEngine on a 5M-row person table.
+-- Run against a scratch database after the service has created the schema:
+--   psql -d persons_bench -f benchmark/trigram-search.sql
+\timing on
+
+INSERT INTO person (id, name, email, phone_number, age, deleted, created_at, updated_at, version)
+SELECT nextval('person_seq'),
+       'Person ' || md5(g::text),
+       'user' || g || '@' || (ARRAY['example.com', 'mail.org', 'corp.net'])[1 + g % 3],
+       '+1' || lpad((g % 1000000000)::text, 10, '0'),
+       g % 100,
+       false,
+       now(),
+       now(),
+       0
+FROM generate_series(1, 5000000) AS g;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_person_name_trgm ON person USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_person_email_trgm ON person USING gin (email gin_trgm_ops);
+VACUUM ANALYZE person;
+
+-- Baseline: the query generated by findByNameContainingOrEmailContaining (plus its COUNT)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM person p WHERE p.name LIKE '%user12345%' OR p.email LIKE '%user12345%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM person p WHERE p.name LIKE '%user12345%' OR p.email LIKE '%user12345%';
+
+-- Trigram engine: substring match
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM person p
+WHERE p.deleted = false
+  AND (p.name ILIKE '%user12345%' OR p.email ILIKE '%user12345%'
+       OR p.name % 'user12345' OR p.email % 'user12345')
+ORDER BY GREATEST(similarity(p.name, 'user12345'), similarity(p.email, 'user12345')) DESC, p.id
+LIMIT 21 OFFSET 0;
+
+-- Trigram engine: misspelled query
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM person p
+WHERE p.deleted = false
+  AND (p.name ILIKE '%usr12345@mail%' OR p.email ILIKE '%usr12345@mail%'
+       OR p.name % 'usr12345@mail' OR p.email % 'usr12345@mail')
+ORDER BY GREATEST(similarity(p.name, 'usr12345@mail'), similarity(p.email, 'usr12345@mail')) DESC, p.id
+LIMIT 21 OFFSET 0;
@@ -0,0 +1,82 @@
+package com.example.persons.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.local.LocalBucketBuilder;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Token buckets keyed by client.
+ * Buckets live in a bounded Caffeine cache: hits are lock-free reads, the least recently
+ * used clients are evicted beyond {@code maximumSize}, and clients idle for longer than
+ * {@code idleTimeout} are dropped (an idle client's bucket would be full again anyway).
+ * With a {@link ProxyManager} the bucket state is kept in Redis so all instances share one
+ * bucket per client; the cache then only holds the lightweight proxies.
+ */
+public class BucketRegistry implements RateLimiter {
+    private final Cache<String, Bucket> buckets;
+    private final Supplier<BucketConfiguration> configuration;
+    private final ProxyManager<String> proxyManager;
+
+    /**
+     * @param configuration Limits of each client's bucket.
+     * @param maximumSize Maximum number of clients held in memory.
+     * @param idleTimeout How long an unused bucket is kept.
+     * @param proxyManager Redis-backed proxy manager, or null for per-instance buckets.
+     */
+    public BucketRegistry(Supplier<BucketConfiguration> configuration, long maximumSize, Duration idleTimeout,
+                          ProxyManager<String> proxyManager) {
+        this.configuration = configuration;
+        this.proxyManager = proxyManager;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    /**
+     * Returns the bucket of a client, creating it on first use.
+     * @param clientKey The client key, e.g. "ip:10.0.0.1".
+     * @return The client's bucket.
+     */
+    public Bucket resolve(String clientKey) {
+        Bucket bucket = buckets.getIfPresent(clientKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        return buckets.get(clientKey, this::create);
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String clientKey, long cost) {
+        ConsumptionProbe probe = resolve(clientKey).tryConsumeAndReturnRemaining(cost);
+        return new RateLimitDecision(probe.isConsumed(), probe.getRemainingTokens(),
+                probe.isConsumed() ? 0 : (probe.getNanosToWaitForRefill() + 999_999_999) / 1_000_000_000);
+    }
+
+    private Bucket create(String clientKey) {
+        if (proxyManager != null) {
+            return proxyManager.builder().build(clientKey, configuration);
+        }
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.get().getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return The number of clients held in memory, after pending evictions.
+     */
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
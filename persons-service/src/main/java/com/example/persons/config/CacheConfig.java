@@ -1,35 +1,91 @@
 package com.example.persons.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
 
 @Configuration
 @EnableCaching
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CacheConfig {
 
+    @Value("${cache.near.maximum-size:10000}")
+    private long nearCacheMaximumSize;
+
+    @Value("${cache.near.ttl:60s}")
+    private Duration nearCacheTtl;
+
+    @Value("${cache.near.invalidation-topic:cache:invalidation}")
+    private String invalidationTopic;
+
+    @Value("${cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${cache.serializer:compact}")
+    private String serializer;
+
+    @Bean
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                            RedisTemplate<String, String> redisTemplate,
+                                            MeterRegistry meterRegistry) {
+        return new TwoTierCacheManager(redisCacheManager(connectionFactory), redisTemplate, meterRegistry,
+                invalidationTopic, nearCacheMaximumSize, nearCacheTtl, earlyRefreshBeta);
+    }
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(cacheManager.getTopic()));
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+        SerializationPair<Object> values = SerializationPair.fromSerializer(valueSerializer());
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
-                .disableCachingNullValues();
+                .disableCachingNullValues()
+                .serializeValuesWith(values);
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
-                .withCacheConfiguration("persons", 
+                .withCacheConfiguration("persons",
                     RedisCacheConfiguration.defaultCacheConfig()
-                        .entryTtl(Duration.ofMinutes(5)))
-                .withCacheConfiguration("person", 
+                        .entryTtl(Duration.ofMinutes(5))
+                        .serializeValuesWith(values))
+                .withCacheConfiguration("person",
                     RedisCacheConfiguration.defaultCacheConfig()
-                        .entryTtl(Duration.ofMinutes(5)))
-                .withCacheConfiguration("personByEmail", 
+                        .entryTtl(Duration.ofMinutes(5))
+                        .serializeValuesWith(values))
+                .withCacheConfiguration("personByEmail",
                     RedisCacheConfiguration.defaultCacheConfig()
-                        .entryTtl(Duration.ofMinutes(5)))
+                        .entryTtl(Duration.ofMinutes(5))
+                        .serializeValuesWith(values))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    private RedisSerializer<Object> valueSerializer() {
+        return switch (serializer) {
+            case "compact" -> new CompactPersonSerializer();
+            case "jdk" -> new JdkSerializationRedisSerializer();
+            default -> throw new IllegalArgumentException("Unknown cache.serializer: " + serializer);
+        };
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,292 @@
+package com.example.persons.config;
+
+import com.example.persons.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary format for the values of the person caches: a single {@link Person}
+ * ("person", "personByEmail") or a {@code Page<Person>} ("persons").
+ * <p>
+ * Every entry starts with {@link #FORMAT_VERSION} and a type byte. A person is a bitmask of its
+ * non-null fields followed by those fields in declaration order; a page is its page request,
+ * total and persons. Numbers are zig-zag varints, strings length-prefixed UTF-8 and timestamps
+ * epoch seconds plus nanos. Other values fall back to JDK serialization.
+ * <p>
+ * Entries of any other format version, including JDK-serialized ones written before this format,
+ * are read as cache misses and overwritten on the next load; bump {@link #FORMAT_VERSION} whenever
+ * the layout changes.
+ */
+public class CompactPersonSerializer implements RedisSerializer<Object> {
+    private static final Logger logger = LoggerFactory.getLogger(CompactPersonSerializer.class);
+    static final byte FORMAT_VERSION = 1;
+    /** Number of Person fields the format covers; a new field needs a new format version. */
+    static final int PERSON_FIELDS = 10;
+
+    private static final byte TYPE_PERSON = 1;
+    private static final byte TYPE_PAGE = 2;
+    private static final byte TYPE_OTHER = 3;
+
+    private final JdkSerializationRedisSerializer fallback = new JdkSerializationRedisSerializer();
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        Output out = new Output(128);
+        out.writeByte(FORMAT_VERSION);
+        if (value instanceof Person person) {
+            out.writeByte(TYPE_PERSON);
+            writePerson(out, person);
+        } else if (value instanceof Page<?> page && page.getContent().stream().allMatch(Person.class::isInstance)) {
+            out.writeByte(TYPE_PAGE);
+            writePage(out, page);
+        } else {
+            out.writeByte(TYPE_OTHER);
+            out.writeBytes(fallback.serialize(value));
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != FORMAT_VERSION) {
+            logger.debug("Ignoring cache entry in format {}, expected {}", bytes[0], FORMAT_VERSION);
+            return null;
+        }
+        try {
+            Input in = new Input(bytes, 2);
+            return switch (bytes[1]) {
+                case TYPE_PERSON -> readPerson(in);
+                case TYPE_PAGE -> readPage(in);
+                case TYPE_OTHER -> fallback.deserialize(Arrays.copyOfRange(bytes, 2, bytes.length));
+                default -> throw new SerializationException("Unknown cache entry type " + bytes[1]);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated cache entry", e);
+        }
+    }
+
+    private static void writePerson(Output out, Person person) {
+        int present = bit(0, person.getId()) | bit(1, person.getName()) | bit(2, person.getEmail())
+                | bit(3, person.getPhoneNumber()) | bit(4, person.getAddress()) | bit(5, person.getAge())
+                | (person.isDeleted() ? 1 << 6 : 0) | bit(7, person.getCreatedAt())
+                | bit(8, person.getUpdatedAt()) | bit(9, person.getVersion());
+        out.writeVarLong(present);
+        if (person.getId() != null) {
+            out.writeVarLong(person.getId());
+        }
+        out.writeString(person.getName());
+        out.writeString(person.getEmail());
+        out.writeString(person.getPhoneNumber());
+        out.writeString(person.getAddress());
+        if (person.getAge() != null) {
+            out.writeVarLong(person.getAge());
+        }
+        out.writeTimestamp(person.getCreatedAt());
+        out.writeTimestamp(person.getUpdatedAt());
+        if (person.getVersion() != null) {
+            out.writeVarLong(person.getVersion());
+        }
+    }
+
+    private static Person readPerson(Input in) {
+        int present = (int) in.readVarLong();
+        Person person = new Person();
+        if (has(present, 0)) {
+            person.setId(in.readVarLong());
+        }
+        if (has(present, 1)) {
+            person.setName(in.readString());
+        }
+        if (has(present, 2)) {
+            person.setEmail(in.readString());
+        }
+        if (has(present, 3)) {
+            person.setPhoneNumber(in.readString());
+        }
+        if (has(present, 4)) {
+            person.setAddress(in.readString());
+        }
+        if (has(present, 5)) {
+            person.setAge((int) in.readVarLong());
+        }
+        person.setDeleted(has(present, 6));
+        if (has(present, 7)) {
+            person.setCreatedAt(in.readTimestamp());
+        }
+        if (has(present, 8)) {
+            person.setUpdatedAt(in.readTimestamp());
+        }
+        if (has(present, 9)) {
+            person.setVersion(in.readVarLong());
+        }
+        return person;
+    }
+
+    private static void writePage(Output out, Page<?> page) {
+        Pageable pageable = page.getPageable();
+        // Page size 0 marks an unpaged request
+        out.writeVarLong(pageable.isPaged() ? pageable.getPageNumber() : 0);
+        out.writeVarLong(pageable.isPaged() ? pageable.getPageSize() : 0);
+        List<Sort.Order> orders = pageable.getSort().toList();
+        out.writeVarLong(orders.size());
+        for (Sort.Order order : orders) {
+            out.writeString(order.getProperty());
+            out.writeByte((byte) order.getDirection().ordinal());
+            out.writeByte((byte) order.getNullHandling().ordinal());
+            out.writeByte((byte) (order.isIgnoreCase() ? 1 : 0));
+        }
+        out.writeVarLong(page.getTotalElements());
+        out.writeVarLong(page.getNumberOfElements());
+        for (Object person : page.getContent()) {
+            writePerson(out, (Person) person);
+        }
+    }
+
+    private static Page<Person> readPage(Input in) {
+        int pageNumber = (int) in.readVarLong();
+        int pageSize = (int) in.readVarLong();
+        int orderCount = (int) in.readVarLong();
+        List<Sort.Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            String property = in.readString();
+            Sort.Direction direction = Sort.Direction.values()[in.readByte()];
+            Sort.Order order = new Sort.Order(direction, property, Sort.NullHandling.values()[in.readByte()]);
+            orders.add(in.readByte() == 1 ? order.ignoreCase() : order);
+        }
+        Pageable pageable = pageSize == 0 ? Pageable.unpaged(Sort.by(orders))
+                : PageRequest.of(pageNumber, pageSize, Sort.by(orders));
+        long total = in.readVarLong();
+        int count = (int) in.readVarLong();
+        List<Person> content = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            content.add(readPerson(in));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static int bit(int index, Object value) {
+        return value != null ? 1 << index : 0;
+    }
+
+    private static boolean has(int present, int index) {
+        return (present & (1 << index)) != 0;
+    }
+
+    private static final class Output {
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            long zigZag = (value << 1) ^ (value >> 63);
+            while ((zigZag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+                zigZag >>>= 7;
+            }
+            buffer[position++] = (byte) zigZag;
+        }
+
+        // Null-safe: callers record presence in the person's bitmask, so null strings are skipped
+        void writeString(String value) {
+            if (value != null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(bytes.length);
+                writeBytes(bytes);
+            }
+        }
+
+        void writeTimestamp(LocalDateTime value) {
+            if (value != null) {
+                writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+                writeVarLong(value.getNano());
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long zigZag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                zigZag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (position + length > buffer.length) {
+                throw new ArrayIndexOutOfBoundsException(position + length);
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        LocalDateTime readTimestamp() {
+            long epochSecond = readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, (int) readVarLong(), ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.persons.config;
+
+import com.example.persons.model.Person;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache: an in-process JCache (Caffeine) cache manager whose regions are
+ * created here with explicit bounds, so Hibernate never creates an unbounded region on its own.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HibernateCacheConfig {
+    // Hibernate's default region for the last write time of each table; must outlive every cached query,
+    // so it never expires, and holds one entry per table
+    static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+    // Hibernate's region for cacheable queries that do not name one
+    static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+    @Value("${cache.l2.entity.maximum-size:10000}")
+    private long entityMaximumSize;
+
+    // Other instances' writes only evict entries through pub/sub; the TTL bounds how long a missed eviction lasts
+    @Value("${cache.l2.entity.ttl:30s}")
+    private Duration entityTtl;
+
+    @Value("${cache.l2.query.maximum-size:10000}")
+    private long queryMaximumSize;
+
+    @Value("${cache.l2.query.ttl:5m}")
+    private Duration queryTtl;
+
+    @Value("${cache.l2.update-timestamps.maximum-size:1000}")
+    private long updateTimestampsMaximumSize;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        // Own manager per application context rather than the provider's shared default
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(Person.CACHE_REGION, region(OptionalLong.of(entityMaximumSize),
+                OptionalLong.of(entityTtl.toNanos())));
+        cacheManager.createCache(Person.EMAIL_QUERY_CACHE_REGION, region(OptionalLong.of(queryMaximumSize),
+                OptionalLong.of(queryTtl.toNanos())));
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(OptionalLong.of(queryMaximumSize),
+                OptionalLong.of(queryTtl.toNanos())));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, region(OptionalLong.of(updateTimestampsMaximumSize),
+                OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // A region without a configuration above is a mistake, not something to create unbounded
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(OptionalLong maximumSize, OptionalLong ttlNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maximumSize);
+        configuration.setExpireAfterWrite(ttlNanos);
+        // Hibernate caches immutable disassembled state; copying it on every access buys nothing
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
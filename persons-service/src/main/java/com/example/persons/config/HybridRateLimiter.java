@@ -0,0 +1,198 @@
+package com.example.persons.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-window request limiter that decides locally and reconciles with Redis in the background.
+ * Each client has an in-process counter for the current window; a request is admitted if the
+ * last known global count plus the local, not yet reported requests stays below the limit, so
+ * the request path never waits for Redis. Local deltas of all clients are sent to Redis in one
+ * Lua script call every sync interval (or as soon as a client has used its local share), and
+ * the returned global totals replace the local view.
+ * <p>
+ * Several instances together can admit at most about {@code tolerance * maxRequests} extra
+ * requests per instance and window. If Redis is unavailable the limit is enforced per instance.
+ */
+public class HybridRateLimiter implements RateLimiter, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(HybridRateLimiter.class);
+
+    // KEYS: window counters, ARGV: deltas followed by the key TTL in milliseconds
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            local ttl = ARGV[#ARGV]
+            local totals = {}
+            for i, key in ipairs(KEYS) do
+                totals[i] = redis.call('INCRBY', key, ARGV[i])
+                if redis.call('PTTL', key) < 0 then
+                    redis.call('PEXPIRE', key, ttl)
+                end
+            end
+            return totals
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TaskScheduler scheduler;
+    private final String keyPrefix;
+    private final long maxRequests;
+    private final long windowMillis;
+    private final long localShare;
+    private final Map<String, WindowCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Not synchronized: a virtual thread blocked on Redis inside a monitor would pin its carrier thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledFuture<?> periodicFlush;
+    private volatile boolean redisAvailable = true;
+
+    /**
+     * Counter of one client in one window.
+     */
+    private static final class WindowCounter {
+        final long window;
+        // Requests admitted here but not yet reported to Redis
+        final AtomicLong pending = new AtomicLong();
+        // Global count of the window as of the last reconciliation, including our reported requests
+        volatile long global;
+
+        WindowCounter(long window) {
+            this.window = window;
+        }
+    }
+
+    /**
+     * @param redisTemplate Template used for reconciliation.
+     * @param scheduler Scheduler running the reconciliation.
+     * @param keyPrefix Prefix of the Redis window keys.
+     * @param maxRequests Tokens allowed per client and window.
+     * @param windowSize Length of a window.
+     * @param syncInterval How often local counts are reconciled with Redis.
+     * @param tolerance Share of maxRequests an instance may admit before it reconciles early.
+     */
+    public HybridRateLimiter(RedisTemplate<String, String> redisTemplate, TaskScheduler scheduler, String keyPrefix,
+                             long maxRequests, Duration windowSize, Duration syncInterval, double tolerance) {
+        this.redisTemplate = redisTemplate;
+        this.scheduler = scheduler;
+        this.keyPrefix = keyPrefix;
+        this.maxRequests = maxRequests;
+        this.windowMillis = windowSize.toMillis();
+        this.localShare = Math.max(1, (long) (maxRequests * tolerance));
+        this.periodicFlush = scheduler.scheduleWithFixedDelay(this::flush, syncInterval);
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String clientKey, long cost) {
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        WindowCounter counter = counters.get(clientKey);
+        if (counter == null || counter.window != window) {
+            counter = counters.compute(clientKey,
+                    (key, existing) -> existing != null && existing.window >= window ? existing : new WindowCounter(window));
+        }
+        while (true) {
+            long pending = counter.pending.get();
+            long remaining = maxRequests - counter.global - pending - cost;
+            if (remaining < 0) {
+                return new RateLimitDecision(false, Math.max(0, remaining + cost),
+                        Math.max(1, ((window + 1) * windowMillis - now + 999) / 1000));
+            }
+            if (counter.pending.compareAndSet(pending, pending + cost)) {
+                if (pending + cost >= localShare) {
+                    requestFlush();
+                }
+                return new RateLimitDecision(true, remaining, 0);
+            }
+        }
+    }
+
+    private void requestFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, Instant.now());
+        }
+    }
+
+    /**
+     * Reports the local deltas of the current window to Redis and adopts the global totals.
+     * Counters of past windows are dropped.
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        long window = System.currentTimeMillis() / windowMillis;
+        List<String> keys = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        List<WindowCounter> reported = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        for (Map.Entry<String, WindowCounter> entry : counters.entrySet()) {
+            WindowCounter counter = entry.getValue();
+            if (counter.window < window) {
+                counters.remove(entry.getKey(), counter);
+                continue;
+            }
+            long delta = counter.pending.get();
+            if (delta > 0) {
+                keys.add(keyPrefix + entry.getKey() + ":" + counter.window);
+                args.add(String.valueOf(delta));
+                reported.add(counter);
+                deltas.add(delta);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        args.add(String.valueOf(2 * windowMillis));
+        try {
+            List<?> totals = redisTemplate.execute(INCREMENT_SCRIPT, keys, args.toArray());
+            for (int i = 0; i < reported.size(); i++) {
+                WindowCounter counter = reported.get(i);
+                // Adopt the total before removing the delta so the local view never undercounts
+                counter.global = ((Number) totals.get(i)).longValue();
+                counter.pending.addAndGet(-deltas.get(i));
+            }
+            if (!redisAvailable) {
+                redisAvailable = true;
+                logger.info("Rate limit reconciliation with Redis resumed");
+            }
+        } catch (Exception e) {
+            // Keep the deltas pending; limits stay enforced locally until Redis is back
+            if (redisAvailable) {
+                redisAvailable = false;
+                logger.warn("Rate limit reconciliation with Redis failed, enforcing limits locally: {}",
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic reconciliation and reports the remaining deltas.
+     */
+    @Override
+    public void close() {
+        periodicFlush.cancel(false);
+        flush();
+    }
+}
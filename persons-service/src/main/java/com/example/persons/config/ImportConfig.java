@@ -0,0 +1,41 @@
+package com.example.persons.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ImportConfig {
+
+    @Value("${persons.import.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${persons.import.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor personImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentJobs);
+        executor.setMaxPoolSize(maxConcurrentJobs);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("person-import-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor personImportWriteExecutor() {
+        // One chunk in flight per running job
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentJobs);
+        executor.setMaxPoolSize(maxConcurrentJobs);
+        executor.setQueueCapacity(maxConcurrentJobs);
+        executor.setThreadNamePrefix("person-import-write-");
+        executor.initialize();
+        return executor;
+    }
+}
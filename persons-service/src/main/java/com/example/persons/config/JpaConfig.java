@@ -0,0 +1,17 @@
+package com.example.persons.config;
+
+import com.example.persons.repository.PersonRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * JPA repositories of the servlet application, which owns the blocking JPA stack.
+ * Scanning is limited to the repository package so the R2DBC repository of the
+ * reactive read path, which maps the same entity, is not picked up by JPA.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableJpaRepositories(basePackageClasses = PersonRepository.class)
+public class JpaConfig {
+}
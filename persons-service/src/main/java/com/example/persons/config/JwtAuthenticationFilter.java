@@ -1,6 +1,10 @@
 package com.example.persons.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
@@ -9,51 +13,103 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
-@Component
+/**
+ * Authenticates requests carrying a bearer JWT.
+ * The signing key and parser are built once; each token is verified and decoded in a
+ * single pass, and verified tokens are remembered (by SHA-256 of the token, until their
+ * expiry) so repeat bearers skip the HMAC check and JSON decoding.
+ */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtParser jwtParser;
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    /**
+     * Identity extracted from a verified token.
+     * @param username The token subject.
+     * @param authorities The granted authorities.
+     * @param expiresAtMillis Expiry of the token, or Long.MAX_VALUE if it has none.
+     */
+    record VerifiedToken(String username, List<GrantedAuthority> authorities, long expiresAtMillis) {
+    }
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    /**
+     * @param jwtSecret The HMAC signing secret.
+     * @param cacheSize Maximum number of verified tokens to remember; 0 disables the cache.
+     * @param maxCacheTtl Upper bound for how long a verified token is remembered.
+     */
+    public JwtAuthenticationFilter(String jwtSecret, long cacheSize, Duration maxCacheTtl) {
+        this.jwtParser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        if (cacheSize <= 0) {
+            this.verifiedTokens = null;
+            return;
+        }
+        long maxCacheTtlNanos = maxCacheTtl.toNanos();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<ByteBuffer, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(
+                                Math.max(token.expiresAtMillis() - System.currentTimeMillis(), 0));
+                        return Math.min(untilExpiry, maxCacheTtlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        try {
-            String jwt = getJwtFromRequest(request);
-            if (jwt != null && validateToken(jwt)) {
-                Claims claims = parseToken(jwt);
-                String username = claims.getSubject();
-                @SuppressWarnings("unchecked")
-                List<String> authorities = claims.get("authorities", List.class);
-                
+        String jwt = getJwtFromRequest(request);
+        if (jwt != null) {
+            VerifiedToken token = verify(jwt);
+            if (token != null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    username, null,
-                    authorities.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList())
-                );
-                
+                        token.username(), null, token.authorities());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.debug("Authenticated user: {}", username);
+                logger.debug("Authenticated user: {}", token.username());
             }
-        } catch (Exception e) {
-            logger.error("Cannot set user authentication: {}", e.getMessage());
         }
 
         filterChain.doFilter(request, response);
@@ -67,26 +123,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private boolean validateToken(String token) {
+    /**
+     * Verifies the token, answering from the cache when the same token was verified before.
+     * Only successfully verified tokens are cached.
+     * @param jwt The compact JWT.
+     * @return The verified identity, or null if the token is invalid or expired.
+     */
+    VerifiedToken verify(String jwt) {
+        if (verifiedTokens == null) {
+            return parse(jwt);
+        }
+        ByteBuffer key = ByteBuffer.wrap(SHA_256.get().digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            return cached;
+        }
+        VerifiedToken verified = parse(jwt);
+        if (verified != null) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String jwt) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(jwt).getPayload();
+            @SuppressWarnings("unchecked")
+            List<String> authorities = claims.get("authorities", List.class);
+            List<GrantedAuthority> grantedAuthorities = authorities == null ? List.of()
+                    : authorities.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+            Date expiration = claims.getExpiration();
+            return new VerifiedToken(claims.getSubject(), grantedAuthorities,
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
         } catch (Exception e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
-
-    private Claims parseToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parserBuilder()
-            .setSigningKey(key)
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
-    }
-} 
\ No newline at end of file
+}
@@ -1,60 +0,0 @@
-package com.example.persons.config;
-
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import java.time.Duration;
-import java.util.concurrent.TimeUnit;
-
-@Aspect
-@Component
-public class RateLimitAspect {
-    private static final Logger logger = LoggerFactory.getLogger(RateLimitAspect.class);
-    private static final String RATE_LIMIT_KEY_PREFIX = "rate_limit:";
-    private static final int MAX_REQUESTS = 100;
-    private static final Duration WINDOW_SIZE = Duration.ofMinutes(1);
-
-    private final RedisTemplate<String, String> redisTemplate;
-
-    public RateLimitAspect(RedisTemplate<String, String> redisTemplate) {
-        this.redisTemplate = redisTemplate;
-    }
-
-    @Around("@annotation(org.springframework.web.bind.annotation.RequestMapping) || " +
-            "@annotation(org.springframework.web.bind.annotation.GetMapping) || " +
-            "@annotation(org.springframework.web.bind.annotation.PostMapping) || " +
-            "@annotation(org.springframework.web.bind.annotation.PutMapping) || " +
-            "@annotation(org.springframework.web.bind.annotation.DeleteMapping)")
-    public Object rateLimit(ProceedingJoinPoint joinPoint) throws Throwable {
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        if (attributes == null) {
-            return joinPoint.proceed();
-        }
-
-        String clientIp = attributes.getRequest().getRemoteAddr();
-        String key = RATE_LIMIT_KEY_PREFIX + clientIp;
-
-        Long currentCount = redisTemplate.opsForValue().increment(key);
-        if (currentCount != null && currentCount == 1) {
-            redisTemplate.expire(key, WINDOW_SIZE.toSeconds(), TimeUnit.SECONDS);
-        }
-
-        if (currentCount != null && currentCount > MAX_REQUESTS) {
-            logger.warn("Rate limit exceeded for IP: {}", clientIp);
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .header("X-Rate-Limit-Retry-After-Seconds", String.valueOf(WINDOW_SIZE.toSeconds()))
-                    .body("Too many requests. Please try again later.");
-        }
-
-        return joinPoint.proceed();
-    }
-} 
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.example.persons.config;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.redis.lettuce.Bucket4jLettuce;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+// Imported rather than nested @Configuration classes, which component scanning would pick up
+// on their own, without the conditions above
+@Import({RateLimitConfig.HybridRateLimitConfig.class, RateLimitConfig.BucketRateLimitConfig.class})
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties,
+                                           MeterRegistry meterRegistry) {
+        return new RateLimitFilter(rateLimiter, properties.clientKey(), properties.apiKeys(),
+                properties.policies(), meterRegistry);
+    }
+
+    @ConditionalOnProperty(name = "rate-limit.mode", havingValue = "hybrid", matchIfMissing = true)
+    static class HybridRateLimitConfig {
+
+        @Bean
+        public ThreadPoolTaskScheduler rateLimitSyncScheduler() {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(1);
+            scheduler.setThreadNamePrefix("rate-limit-sync-");
+            scheduler.initialize();
+            return scheduler;
+        }
+
+        @Bean(destroyMethod = "close")
+        public HybridRateLimiter hybridRateLimiter(RedisTemplate<String, String> redisTemplate,
+                                                   ThreadPoolTaskScheduler rateLimitSyncScheduler,
+                                                   RateLimitProperties properties) {
+            return new HybridRateLimiter(redisTemplate, rateLimitSyncScheduler, "rate_limit:",
+                    properties.maxRequests(), properties.windowSize(), properties.syncInterval(),
+                    properties.tolerance());
+        }
+    }
+
+    @ConditionalOnProperty(name = "rate-limit.mode", havingValue = "bucket")
+    static class BucketRateLimitConfig {
+
+        @Bean
+        public BucketRegistry bucketRegistry(RateLimitProperties properties,
+                                             ObjectProvider<ProxyManager<String>> proxyManager) {
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(limit -> limit.capacity(properties.maxRequests())
+                            .refillGreedy(properties.maxRequests(), properties.windowSize()))
+                    .build();
+            return new BucketRegistry(() -> configuration, properties.buckets().maximumSize(),
+                    properties.buckets().idleTimeout(), proxyManager.getIfAvailable());
+        }
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnProperty(name = "rate-limit.distributed", havingValue = "true")
+        public StatefulRedisConnection<String, byte[]> rateLimitRedisConnection(
+                LettuceConnectionFactory connectionFactory) {
+            // Reuses the client (and thereby the event loops) of the application's Redis connection factory
+            RedisClient client = (RedisClient) connectionFactory.getRequiredNativeClient();
+            return client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "rate-limit.distributed", havingValue = "true")
+        public ProxyManager<String> rateLimitProxyManager(
+                StatefulRedisConnection<String, byte[]> rateLimitRedisConnection) {
+            // Bucket state expires in Redis once the bucket would be full again
+            return Bucket4jLettuce.casBasedBuilder(rateLimitRedisConnection)
+                    .expirationAfterWrite(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(
+                            Duration.ofSeconds(10)))
+                    .build();
+        }
+    }
+}
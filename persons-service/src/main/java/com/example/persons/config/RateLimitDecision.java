@@ -0,0 +1,10 @@
+package com.example.persons.config;
+
+/**
+ * Outcome of a rate limit check.
+ * @param allowed Whether the request may proceed.
+ * @param remaining Tokens the client has left, as far as known to this instance.
+ * @param retryAfterSeconds Seconds until the client may try again, for rejected requests.
+ */
+public record RateLimitDecision(boolean allowed, long remaining, long retryAfterSeconds) {
+}
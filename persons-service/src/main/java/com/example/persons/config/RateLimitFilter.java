@@ -1,7 +1,7 @@
 package com.example.persons.config;
 
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,35 +9,159 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
-import org.springframework.stereotype.Component;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-@Component
+/**
+ * The single rate limiting point of the service: one decision per request.
+ * Each request costs tokens according to the first matching endpoint policy (1 otherwise),
+ * so expensive calls such as bulk writes use up a client's budget faster than reads.
+ * Decisions are recorded in the {@code rate.limit.decisions} timer, tagged by policy and outcome.
+ */
 public class RateLimitFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
-    private final Bucket bucket;
+    private static final String API_KEY_HEADER = "X-API-Key";
+    private static final String DEFAULT_POLICY = "default";
 
-    public RateLimitFilter(Bucket bucket) {
-        this.bucket = bucket;
+    private final RateLimiter rateLimiter;
+    private final ClientKey clientKey;
+    private final Set<String> apiKeyDigests;
+    private final List<CompiledPolicy> policies;
+    private final CompiledPolicy defaultPolicy;
+
+    /**
+     * What identifies a client. SUBJECT and API_KEY fall back to the IP address
+     * for requests without an authenticated user or a known API key.
+     */
+    public enum ClientKey {
+        IP, SUBJECT, API_KEY
+    }
+
+    /**
+     * A policy with its path pattern parsed and its timers registered up front,
+     * so the request path does no parsing or meter lookups.
+     */
+    private record CompiledPolicy(String name, Set<String> methods, PathPattern pattern, long cost,
+                                  Timer allowed, Timer rejected) {
+
+        boolean matches(String method, PathContainer path) {
+            return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+        }
+    }
+
+    public RateLimitFilter(RateLimiter rateLimiter, ClientKey clientKey, List<String> apiKeyDigests,
+                           List<RateLimitProperties.Policy> policies, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.clientKey = clientKey;
+        this.apiKeyDigests = apiKeyDigests.stream()
+                .map(digest -> digest.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.policies = policies.stream()
+                .map(policy -> compile(policy.name(), policy.methods(), policy.path(), policy.cost(), meterRegistry))
+                .toList();
+        this.defaultPolicy = compile(DEFAULT_POLICY, List.of(), "/**", 1, meterRegistry);
+    }
+
+    private static CompiledPolicy compile(String name, List<String> methods, String path, long cost,
+                                          MeterRegistry meterRegistry) {
+        return new CompiledPolicy(name,
+                methods.stream().map(method -> method.toUpperCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet()),
+                PathPatternParser.defaultInstance.parse(path), cost,
+                decisionTimer(meterRegistry, name, "allowed"), decisionTimer(meterRegistry, name, "rejected"));
+    }
+
+    private static Timer decisionTimer(MeterRegistry meterRegistry, String policy, String outcome) {
+        return Timer.builder("rate.limit.decisions")
+                .description("Rate limit decisions and the time taken to make them")
+                .tag("policy", policy)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-        
-        if (probe.isConsumed()) {
-            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        long start = System.nanoTime();
+        CompiledPolicy policy = resolvePolicy(request);
+        RateLimitDecision decision = rateLimiter.tryAcquire(resolveClientKey(request), policy.cost());
+        (decision.allowed() ? policy.allowed() : policy.rejected())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (decision.allowed()) {
+            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(decision.remaining()));
             filterChain.doFilter(request, response);
         } else {
-            long waitForRefill = probe.getNanosToWaitForRefill() / 1_000_000_000;
+            long waitForRefill = decision.retryAfterSeconds();
             response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-            logger.warn("Rate limit exceeded for request: {} {}", request.getMethod(), request.getRequestURI());
+            // Rejections are counted by the decisions timer; a WARN line per request would flood the log under load
+            logger.debug("Rate limit exceeded for request: {} {}", request.getMethod(), request.getRequestURI());
             response.getWriter().write("Too many requests. Please try again in " + waitForRefill + " seconds.");
         }
     }
-} 
\ No newline at end of file
+
+    private CompiledPolicy resolvePolicy(HttpServletRequest request) {
+        if (policies.isEmpty()) {
+            return defaultPolicy;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (CompiledPolicy policy : policies) {
+            if (policy.matches(request.getMethod(), path)) {
+                return policy;
+            }
+        }
+        return defaultPolicy;
+    }
+
+    /**
+     * Resolves the bucket key of the calling client.
+     * @param request The current request.
+     * @return The key, prefixed with its kind ("ip:", "sub:" or "key:"). The IP is the client's as
+     *         resolved from forwarded headers of trusted proxies ({@code server.forward-headers-strategy}).
+     */
+    String resolveClientKey(HttpServletRequest request) {
+        if (clientKey == ClientKey.SUBJECT) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "sub:" + authentication.getName();
+            }
+        } else if (clientKey == ClientKey.API_KEY) {
+            String apiKey = request.getHeader(API_KEY_HEADER);
+            if (apiKey != null && !apiKey.isBlank()) {
+                // Keep raw API keys out of memory dumps and Redis key names. The header is not authenticated,
+                // so only configured keys get their own bucket; a made-up key would otherwise get a fresh one
+                String digest = sha256(apiKey);
+                if (apiKeyDigests.contains(digest)) {
+                    return "key:" + digest;
+                }
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.persons.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.convert.DurationUnit;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * The rate-limit.* properties.
+ * @param enabled Whether requests are rate limited at all.
+ * @param mode Which limiter decides: the hybrid local/Redis window counter or per-client token buckets.
+ * @param maxRequests Tokens a client may spend per window.
+ * @param windowSize Length of a window (plain numbers are seconds).
+ * @param syncInterval How often the hybrid limiter reconciles with Redis.
+ * @param tolerance Share of maxRequests an instance may admit before the hybrid limiter reconciles early.
+ * @param clientKey What identifies a client.
+ * @param apiKeys SHA-256 digests (hex) of the API keys that get a bucket of their own; other keys count as their IP.
+ * @param distributed Whether token buckets are kept in Redis (bucket mode).
+ * @param buckets Bounds of the in-memory bucket registry (bucket mode).
+ * @param policies Endpoint-specific request costs, first match wins; other requests cost 1.
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("hybrid") Mode mode,
+        @DefaultValue("100") long maxRequests,
+        @DefaultValue("60") @DurationUnit(ChronoUnit.SECONDS) Duration windowSize,
+        @DefaultValue("100ms") Duration syncInterval,
+        @DefaultValue("0.1") double tolerance,
+        @DefaultValue("ip") RateLimitFilter.ClientKey clientKey,
+        @DefaultValue List<String> apiKeys,
+        @DefaultValue("false") boolean distributed,
+        @DefaultValue Buckets buckets,
+        @DefaultValue List<Policy> policies) {
+
+    public enum Mode {
+        HYBRID, BUCKET
+    }
+
+    /**
+     * @param maximumSize Clients held in memory.
+     * @param idleTimeout How long an unused bucket is kept.
+     */
+    public record Buckets(@DefaultValue("100000") long maximumSize, @DefaultValue("10m") Duration idleTimeout) {
+    }
+
+    /**
+     * @param name Name used in metrics.
+     * @param methods HTTP methods the policy applies to; empty means all.
+     * @param path Path pattern, e.g. "/api/persons/import/**".
+     * @param cost Tokens a matching request costs.
+     */
+    public record Policy(String name, @DefaultValue List<String> methods, String path, @DefaultValue("1") long cost) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.persons.config;
+
+/**
+ * Decides whether a client may spend a number of request tokens.
+ * Implementations must be thread-safe and must not block on the network for a decision.
+ */
+public interface RateLimiter {
+
+    /**
+     * Counts a request of the given client and decides whether it is admitted.
+     * @param clientKey The client, e.g. "ip:10.0.0.1".
+     * @param cost Tokens the request costs.
+     * @return The decision.
+     */
+    RateLimitDecision tryAcquire(String clientKey, long cost);
+}
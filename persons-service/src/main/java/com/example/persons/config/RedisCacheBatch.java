@@ -0,0 +1,90 @@
+package com.example.persons.config;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-key access to a {@link RedisCache}: one MGET for lookups and one pipeline of SETs for
+ * writes. Keys, values and TTLs are encoded exactly as the cache itself encodes them, so entries
+ * are interchangeable with single-key {@code get} and {@code put}.
+ */
+class RedisCacheBatch implements TwoTierCache.RemoteBatch {
+    // RedisCache stores cached nulls as the JDK form of NullValue, whatever the value serializer
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final RedisCache cache;
+    private final RedisCacheConfiguration config;
+    private final RedisTemplate<?, ?> redisTemplate;
+
+    RedisCacheBatch(RedisCache cache, RedisTemplate<?, ?> redisTemplate) {
+        this.cache = cache;
+        this.config = cache.getCacheConfiguration();
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        List<?> keyList = List.copyOf(keys);
+        byte[][] rawKeys = keyList.stream().map(this::rawKey).toArray(byte[][]::new);
+        List<byte[]> rawValues = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(rawKeys));
+        Map<Object, Object> values = new HashMap<>();
+        for (int i = 0; rawValues != null && i < keyList.size(); i++) {
+            Object value = value(rawValues.get(i));
+            if (value != null) {
+                values.put(keyList.get(i), value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> values) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            values.forEach((key, value) -> {
+                if (value == null && !config.getAllowCacheNullValues()) {
+                    return;
+                }
+                byte[] rawValue = value == null ? BINARY_NULL_VALUE
+                        : ByteUtils.getBytes(config.getValueSerializationPair().write(value));
+                Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                Expiration expiration = ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+                connection.stringCommands().set(rawKey(key), rawValue, expiration, RedisStringCommands.SetOption.upsert());
+            });
+            return null;
+        });
+    }
+
+    private Object value(byte[] rawValue) {
+        if (rawValue == null) {
+            return null;
+        }
+        if (config.getAllowCacheNullValues() && Arrays.equals(rawValue, BINARY_NULL_VALUE)) {
+            return NullValue.INSTANCE;
+        }
+        // Null for entries the serializer does not understand, which then count as misses
+        return config.getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+    }
+
+    private byte[] rawKey(Object key) {
+        String convertedKey = key instanceof String string ? string
+                : config.getConversionService().convert(key, String.class);
+        String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + convertedKey : convertedKey;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(cacheKey));
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.persons.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Cache that keeps a bounded in-process copy (L1) of entries held in a shared
+ * remote cache (L2). Writes and evictions go to both tiers and are announced to
+ * other instances through the supplied publisher so their L1 copies are dropped.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} are single-flight: concurrent misses for a key
+ * wait for the first caller's load instead of each running the loader. With an early refresh
+ * factor above zero, entries this instance loaded are reloaded by one caller shortly before
+ * their remote TTL runs out (probabilistic early expiration, XFetch), so hot keys do not
+ * expire for every caller at once.
+ * <p>
+ * {@link #getAll(Collection, Function)} resolves many keys with one remote round trip and one
+ * loader call when the remote cache offers a {@link RemoteBatch}.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final Consumer<String> invalidationPublisher;
+    private final RemoteBatch remoteBatch;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final com.github.benmanes.caffeine.cache.Cache<String, LoadStamp> loadStamps;
+    private final long remoteTtlNanos;
+    private final double earlyRefreshBeta;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l1Evictions;
+    private final Counter remoteInvalidations;
+    private final Counter missLoads;
+    private final Counter earlyRefreshLoads;
+    private final Counter coalescedLoads;
+
+    public TwoTierCache(Cache remote, long maximumSize, Duration ttl,
+                        Consumer<String> invalidationPublisher, MeterRegistry meterRegistry) {
+        this(remote, maximumSize, ttl, invalidationPublisher, meterRegistry, Duration.ZERO, 0, null);
+    }
+
+    /**
+     * @param remoteTtl Time-to-live of the remote entries, or zero if they do not expire.
+     * @param earlyRefreshBeta How eagerly entries are refreshed before {@code remoteTtl} runs out,
+     *                         scaled by their load time; 0 disables early refresh, 1 is the usual choice.
+     * @param remoteBatch Multi-key access to the remote cache, or null to access it key by key.
+     */
+    public TwoTierCache(Cache remote, long maximumSize, Duration ttl,
+                        Consumer<String> invalidationPublisher, MeterRegistry meterRegistry,
+                        Duration remoteTtl, double earlyRefreshBeta, RemoteBatch remoteBatch) {
+        super(true);
+        this.name = remote.getName();
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.remoteBatch = remoteBatch;
+        this.remoteTtlNanos = remoteTtl.toNanos();
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.loadStamps = earlyRefreshBeta > 0 && !remoteTtl.isZero() && !remoteTtl.isNegative()
+                ? Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(remoteTtl).build()
+                : null;
+
+        this.l1Hits = gets(meterRegistry, "l1", "hit");
+        this.l1Misses = gets(meterRegistry, "l1", "miss");
+        this.l2Hits = gets(meterRegistry, "l2", "hit");
+        this.l2Misses = gets(meterRegistry, "l2", "miss");
+        this.l1Evictions = Counter.builder("cache.tier.evictions")
+                .tag("cache", name)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+        this.remoteInvalidations = Counter.builder("cache.tier.invalidations")
+                .tag("cache", name)
+                .tag("source", "remote")
+                .register(meterRegistry);
+        this.missLoads = loads(meterRegistry, "miss");
+        this.earlyRefreshLoads = loads(meterRegistry, "early-refresh");
+        this.coalescedLoads = loads(meterRegistry, "coalesced");
+
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .removalListener((String key, Object value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        l1Evictions.increment();
+                    }
+                })
+                .build();
+    }
+
+    private Counter gets(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter loads(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("cache.tier.loads")
+                .tag("cache", name)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            l1Hits.increment();
+            return value;
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        Object storeValue = toStoreValue(wrapper.get());
+        local.put(localKey, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper cached = get(key);
+        if (cached != null && !shouldRefreshEarly(localKey)) {
+            return (T) cached.get();
+        }
+        return (T) fromStoreValue(load(key, localKey, valueLoader, cached != null));
+    }
+
+    /**
+     * Runs the loader unless a load of the key is already in flight, in which case its result is shared.
+     */
+    private Object load(Object key, String localKey, Callable<?> valueLoader, boolean earlyRefresh) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(localKey, load);
+        if (inFlight != null) {
+            coalescedLoads.increment();
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        (earlyRefresh ? earlyRefreshLoads : missLoads).increment();
+        try {
+            long start = System.nanoTime();
+            Object value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                load.completeExceptionally(e);
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            Object storeValue = toStoreValue(value);
+            load.complete(storeValue);
+            put(key, value);
+            if (loadStamps != null) {
+                loadStamps.put(localKey, new LoadStamp(System.nanoTime(), System.nanoTime() - start));
+            }
+            return storeValue;
+        } finally {
+            inFlightLoads.remove(localKey, load);
+        }
+    }
+
+    /**
+     * Decides whether a hit should be reloaded before the remote entry expires. The chance grows
+     * as the expiry approaches, and sooner for entries that take long to load.
+     */
+    private boolean shouldRefreshEarly(String localKey) {
+        if (loadStamps == null || inFlightLoads.containsKey(localKey)) {
+            return false;
+        }
+        LoadStamp stamp = loadStamps.getIfPresent(localKey);
+        if (stamp == null) {
+            return false;
+        }
+        double gap = stamp.loadTime() * earlyRefreshBeta * -Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + gap >= stamp.loadedAt() + remoteTtlNanos;
+    }
+
+    /**
+     * Looks up several keys at once: L1 first, then the remaining keys in one remote round trip,
+     * then the keys missing from both tiers in one loader call, whose results are written back
+     * to both tiers together.
+     * @param keys The keys to look up.
+     * @param loader Loads the missing keys; keys it leaves out are cached as absent.
+     * @return The value of every key, null for absent ones, in the order of {@code keys}.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> values = new LinkedHashMap<>();
+        List<K> remoteKeys = new ArrayList<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            Object value = local.getIfPresent(localKey(key));
+            // Reserves the key's position, so the result keeps the requested order
+            values.put(key, null);
+            if (value != null) {
+                l1Hits.increment();
+                values.put(key, (V) fromStoreValue(value));
+            } else {
+                l1Misses.increment();
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return values;
+        }
+
+        Map<Object, Object> remoteValues = remoteGetAll(remoteKeys);
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : remoteKeys) {
+            Object storeValue = remoteValues.get(key);
+            if (storeValue == null) {
+                l2Misses.increment();
+                missing.add(key);
+            } else {
+                l2Hits.increment();
+                local.put(localKey(key), storeValue);
+                values.put(key, (V) fromStoreValue(storeValue));
+            }
+        }
+        if (missing.isEmpty()) {
+            return values;
+        }
+
+        missLoads.increment(missing.size());
+        Map<K, V> loaded = loader.apply(missing);
+        Map<K, V> backfill = new HashMap<>();
+        for (K key : missing) {
+            V value = loaded.get(key);
+            backfill.put(key, value);
+            values.put(key, value);
+            local.put(localKey(key), toStoreValue(value));
+        }
+        // Other instances hold no L1 copy of keys missing from L2, so there is nothing to announce
+        remotePutAll(backfill);
+        return values;
+    }
+
+    private Map<Object, Object> remoteGetAll(Collection<?> keys) {
+        if (remoteBatch != null) {
+            return remoteBatch.getAll(keys);
+        }
+        Map<Object, Object> values = new HashMap<>();
+        for (Object key : keys) {
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null) {
+                values.put(key, toStoreValue(wrapper.get()));
+            }
+        }
+        return values;
+    }
+
+    private void remotePutAll(Map<?, ?> values) {
+        if (remoteBatch != null) {
+            remoteBatch.putAll(values);
+        } else {
+            values.forEach(remote::put);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        local.put(localKey, toStoreValue(value));
+        invalidationPublisher.accept(localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        forgetLoad(localKey);
+        invalidationPublisher.accept(localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        forgetLoad(null);
+        invalidationPublisher.accept(null);
+    }
+
+    /**
+     * Drops an L1 entry after another instance changed it.
+     * @param localKey The key in its string form, or null to drop every entry.
+     */
+    void invalidateLocal(String localKey) {
+        remoteInvalidations.increment();
+        if (localKey == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(localKey);
+        }
+        forgetLoad(localKey);
+    }
+
+    private void forgetLoad(String localKey) {
+        if (loadStamps == null) {
+            return;
+        }
+        if (localKey == null) {
+            loadStamps.invalidateAll();
+        } else {
+            loadStamps.invalidate(localKey);
+        }
+    }
+
+    /**
+     * L1 entries are keyed by the same string form Redis uses, so invalidation
+     * messages from other instances can address them directly.
+     */
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Reads and writes many entries of the remote cache in one round trip each.
+     */
+    public interface RemoteBatch {
+        /**
+         * @param keys The keys to read.
+         * @return The stored values of the keys found, {@link org.springframework.cache.support.NullValue} for cached nulls.
+         */
+        Map<Object, Object> getAll(Collection<?> keys);
+
+        /**
+         * @param values The values to write by key; null values are cached as absent.
+         */
+        void putAll(Map<?, ?> values);
+    }
+
+    /**
+     * When this instance last loaded an entry and how long the load took, both in nanoseconds.
+     */
+    private record LoadStamp(long loadedAt, long loadTime) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.persons.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps every cache of a Redis-backed {@link CacheManager} in a {@link TwoTierCache}
+ * and keeps the in-process tiers of all instances consistent through Redis pub/sub.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager remoteCacheManager;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String topic;
+    private final long maximumSize;
+    private final Duration ttl;
+    private final double earlyRefreshBeta;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, RedisTemplate<String, String> redisTemplate,
+                               MeterRegistry meterRegistry, String topic, long maximumSize, Duration ttl,
+                               double earlyRefreshBeta) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.topic = topic;
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoTierCache(
+                remote, maximumSize, ttl, localKey -> publish(n, localKey), meterRegistry,
+                remoteTtl(remote), earlyRefreshBeta,
+                remote instanceof RedisCache redisCache ? new RedisCacheBatch(redisCache, redisTemplate) : null));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    // Early refresh needs a fixed remote TTL; caches without one only get single-flight loads
+    private static Duration remoteTtl(Cache remote) {
+        if (remote instanceof RedisCache redisCache) {
+            Duration remoteTtl = redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(remote.getName(), null);
+            return remoteTtl.isNegative() ? Duration.ZERO : remoteTtl;
+        }
+        return Duration.ZERO;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    private void publish(String cacheName, String localKey) {
+        String message = instanceId + SEPARATOR + cacheName + (localKey != null ? SEPARATOR + localKey : "");
+        try {
+            redisTemplate.convertAndSend(topic, message);
+        } catch (Exception e) {
+            logger.warn("Failed to publish near cache invalidation for cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(Pattern.quote(SEPARATOR), 3);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts.length == 3 ? parts[2] : null);
+        }
+    }
+}
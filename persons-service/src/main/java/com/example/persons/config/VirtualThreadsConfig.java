@@ -0,0 +1,36 @@
+package com.example.persons.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Reports whether requests are actually served by virtual threads when the virtual-threads
+ * profile asks for them; Spring Boot silently keeps platform threads on runtimes before Java 21.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    private final Environment environment;
+
+    public VirtualThreadsConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreading() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            logger.info("Requests are served by virtual threads");
+        } else {
+            logger.warn("Virtual threads requested but the runtime is Java {}; requests are served by platform threads",
+                    Runtime.version().feature());
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.persons.controller;
 
+import com.example.persons.model.BulkIngestReport;
+import com.example.persons.model.CursorPage;
 import com.example.persons.model.Person;
+import com.example.persons.model.PersonPatch;
+import com.example.persons.service.PersonBulkIngestService;
+import com.example.persons.service.PersonExportService;
 import com.example.persons.service.PersonService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,13 +15,25 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
 
 /**
  * REST controller for managing Person entities.
@@ -24,12 +41,21 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/persons")
 @Tag(name = "Person Management", description = "APIs for managing persons")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PersonController {
     private static final Logger logger = LoggerFactory.getLogger(PersonController.class);
     private final PersonService personService;
+    private final PersonExportService personExportService;
+    private final PersonBulkIngestService personBulkIngestService;
+    private final CacheControl personCacheControl;
 
-    public PersonController(PersonService personService) {
+    public PersonController(PersonService personService, PersonExportService personExportService,
+                            PersonBulkIngestService personBulkIngestService,
+                            @Value("${cache.http.max-age:0s}") Duration personMaxAge) {
         this.personService = personService;
+        this.personExportService = personExportService;
+        this.personBulkIngestService = personBulkIngestService;
+        this.personCacheControl = PersonETag.cacheControl(personMaxAge);
     }
 
     /**
@@ -50,13 +76,61 @@ public class PersonController {
     }
 
     /**
-     * Retrieves a person by ID.
+     * Retrieves persons using keyset pagination.
+     * @param cursor The cursor of the slice to retrieve, omitted for the first slice.
+     * @param size The maximum number of persons per slice.
+     * @return Slice of persons with the cursor of the next slice.
+     */
+    @Operation(summary = "Scroll through persons", description = "Retrieves persons with cursor-based pagination. Latency does not grow with depth.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved slice of persons"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<Person>> scrollPersons(
+            @Parameter(description = "Opaque cursor returned by the previous slice") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Slice size (max 100)") @RequestParam(defaultValue = "20") int size) {
+        logger.info("Request to scroll persons with cursor: {}", cursor);
+        return ResponseEntity.ok(personService.scroll(cursor, size));
+    }
+
+    /**
+     * Exports all persons as a stream.
+     * @param format The output format, ndjson or csv.
+     * @return Streaming body writing one person per line.
+     */
+    @Operation(summary = "Export all persons", description = "Streams every person as NDJSON or CSV with constant memory.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export stream started"),
+            @ApiResponse(responseCode = "400", description = "Unknown format"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPersons(
+            @Parameter(description = "Output format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+        PersonExportService.Format exportFormat = PersonExportService.Format.parse(format);
+        logger.info("Request to export persons as {}", exportFormat);
+        MediaType mediaType = exportFormat == PersonExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = out -> personExportService.export(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header("Content-Disposition", "attachment; filename=persons." + exportFormat.name().toLowerCase(Locale.ROOT))
+                .body(body);
+    }
+
+    /**
+     * Retrieves a person by ID, with its ETag and Last-Modified.
+     * A conditional request is answered with 304 from the cached person, without a database read.
      * @param id The ID of the person.
-     * @return The person if found, or 404 if not found.
+     * @return The person if found, 304 if the client's copy is current, or 404 if not found.
      */
-    @Operation(summary = "Get a person by ID", description = "Retrieves a person by their unique ID.")
+    @Operation(summary = "Get a person by ID", description = "Retrieves a person by their unique ID. Supports If-None-Match and If-Modified-Since.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully retrieved person"),
+            @ApiResponse(responseCode = "304", description = "Person not modified since the client's copy"),
             @ApiResponse(responseCode = "404", description = "Person not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
@@ -65,7 +139,7 @@ public class PersonController {
             @Parameter(description = "Person ID") @PathVariable Long id) {
         logger.info("Request to retrieve person with ID: {}", id);
         return personService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(person -> PersonETag.ok(person, personCacheControl))
                 .orElseGet(() -> {
                     logger.warn("Person with ID {} not found", id);
                     return ResponseEntity.notFound().build();
@@ -73,13 +147,14 @@ public class PersonController {
     }
 
     /**
-     * Retrieves a person by email.
+     * Retrieves a person by email, with its ETag and Last-Modified.
      * @param email The email of the person.
-     * @return The person if found, or 404 if not found.
+     * @return The person if found, 304 if the client's copy is current, or 404 if not found.
      */
-    @Operation(summary = "Get a person by email", description = "Retrieves a person by their email address.")
+    @Operation(summary = "Get a person by email", description = "Retrieves a person by their email address. Supports If-None-Match and If-Modified-Since.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully retrieved person"),
+            @ApiResponse(responseCode = "304", description = "Person not modified since the client's copy"),
             @ApiResponse(responseCode = "404", description = "Person not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
@@ -88,13 +163,33 @@ public class PersonController {
             @Parameter(description = "Person email") @PathVariable String email) {
         logger.info("Request to retrieve person with email: {}", email);
         return personService.findByEmail(email)
-                .map(ResponseEntity::ok)
+                .map(person -> PersonETag.ok(person, personCacheControl))
                 .orElseGet(() -> {
                     logger.warn("Person with email {} not found", email);
                     return ResponseEntity.notFound().build();
                 });
     }
 
+    /**
+     * Retrieves many persons by ID and email in one request.
+     * @param ids The IDs of the persons.
+     * @param emails The emails of the persons.
+     * @return The persons found; IDs and emails without a person are left out.
+     */
+    @Operation(summary = "Look up many persons", description = "Retrieves the persons with the given IDs and emails in one request. Unknown IDs and emails are left out of the result.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved persons"),
+            @ApiResponse(responseCode = "400", description = "More than 100 IDs and emails"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/lookup")
+    public ResponseEntity<List<Person>> lookupPersons(
+            @Parameter(description = "Person IDs") @RequestParam(defaultValue = "") List<Long> ids,
+            @Parameter(description = "Person emails") @RequestParam(defaultValue = "") List<String> emails) {
+        logger.info("Request to look up {} persons by ID and {} by email", ids.size(), emails.size());
+        return ResponseEntity.ok(personService.lookup(ids, emails));
+    }
+
     /**
      * Creates a new person.
      * @param person The person to create.
@@ -111,7 +206,7 @@ public class PersonController {
             @Parameter(description = "Person data") @Valid @RequestBody Person person) {
         logger.info("Request to create person: {}", person.getName());
         Person savedPerson = personService.save(person);
-        return ResponseEntity.status(201).body(savedPerson);
+        return ResponseEntity.status(201).eTag(PersonETag.of(savedPerson)).body(savedPerson);
     }
 
     /**
@@ -133,48 +228,114 @@ public class PersonController {
         return ResponseEntity.status(201).body(savedPersons);
     }
 
+    /**
+     * Bulk ingests persons in batched, per-chunk transactions.
+     * @param persons The list of persons to ingest.
+     * @return Report of inserted and rejected rows.
+     */
+    @Operation(summary = "Bulk ingest persons", description = "Inserts large lists of persons in JDBC-batched chunks. Invalid or conflicting rows are rejected individually instead of failing the whole request.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ingest finished, see report for rejected rows"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkIngestReport> bulkIngestPersons(
+            @Parameter(description = "List of persons") @RequestBody List<Person> persons) {
+        logger.info("Request to bulk ingest {} persons", persons.size());
+        return ResponseEntity.ok(personBulkIngestService.ingest(persons));
+    }
+
     /**
      * Updates an existing person.
      * @param id The ID of the person to update.
      * @param person The updated person data.
-     * @return The updated person if found, or 404 if not found.
+     * @param ifMatch The ETag the person must still have, if given; takes precedence over the body's version.
+     * @return The updated person with its new ETag if found, 404 if not found, 409 if the body's version
+     * is outdated, or 412 if the If-Match ETag is.
      */
-    @Operation(summary = "Update a person", description = "Updates an existing person by their ID.")
+    @Operation(summary = "Update a person", description = "Replaces all fields of an existing person by their ID. If the request carries If-Match or the body a version, the update only succeeds while the person still has that version.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Person updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input"),
             @ApiResponse(responseCode = "404", description = "Person not found"),
+            @ApiResponse(responseCode = "409", description = "Person was modified since the given version"),
+            @ApiResponse(responseCode = "412", description = "Person was modified since the If-Match ETag"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{id}")
     public ResponseEntity<Person> updatePerson(
             @Parameter(description = "Person ID") @PathVariable Long id,
-            @Parameter(description = "Updated person data") @Valid @RequestBody Person person) {
+            @Parameter(description = "Updated person data") @Valid @RequestBody Person person,
+            @Parameter(description = "ETag the person must still have") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Request to update person with ID: {}", id);
-        return personService.update(id, person)
-                .map(ResponseEntity::ok)
+        Long expectedVersion = PersonETag.expectedVersion(id, ifMatch);
+        if (expectedVersion != null) {
+            person.setVersion(expectedVersion);
+        }
+        return ifMatch(ifMatch, () -> personService.update(id, person))
+                .map(updated -> ResponseEntity.ok().eTag(PersonETag.of(updated)).body(updated))
                 .orElseGet(() -> {
                     logger.warn("Person with ID {} not found for update", id);
                     return ResponseEntity.notFound().build();
                 });
     }
 
+    /**
+     * Changes only the given fields of an existing person.
+     * @param id The ID of the person to patch.
+     * @param patch The fields to change.
+     * @param ifMatch The ETag the person must still have, if given; takes precedence over the body's version.
+     * @return The updated person with its new ETag if found, 404 if not found, 409 if the body's version
+     * is outdated, or 412 if the If-Match ETag is.
+     */
+    @Operation(summary = "Partially update a person", description = "Changes only the non-null fields of the body. If the request carries If-Match or the body a version, the update only succeeds while the person still has that version.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Person updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or no fields to update"),
+            @ApiResponse(responseCode = "404", description = "Person not found"),
+            @ApiResponse(responseCode = "409", description = "Person was modified since the given version"),
+            @ApiResponse(responseCode = "412", description = "Person was modified since the If-Match ETag"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<Person> patchPerson(
+            @Parameter(description = "Person ID") @PathVariable Long id,
+            @Parameter(description = "Fields to change") @Valid @RequestBody PersonPatch patch,
+            @Parameter(description = "ETag the person must still have") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("Request to patch person with ID: {}", id);
+        Long expectedVersion = PersonETag.expectedVersion(id, ifMatch);
+        PersonPatch conditionalPatch = expectedVersion != null ? patch.withVersion(expectedVersion) : patch;
+        return ifMatch(ifMatch, () -> personService.patch(id, conditionalPatch))
+                .map(updated -> ResponseEntity.ok().eTag(PersonETag.of(updated)).body(updated))
+                .orElseGet(() -> {
+                    logger.warn("Person with ID {} not found for patch", id);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
     /**
      * Deletes a person by ID.
      * @param id The ID of the person to delete.
-     * @return 204 if deleted, or 404 if not found.
+     * @param version The version the person must still have, if given.
+     * @param ifMatch The ETag the person must still have, if given; takes precedence over {@code version}.
+     * @return 204 if deleted, 404 if not found, 409 if the version is outdated, or 412 if the If-Match ETag is.
      */
     @Operation(summary = "Soft delete a person", description = "Marks a person as deleted without removing from database.")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Person deleted successfully"),
             @ApiResponse(responseCode = "404", description = "Person not found"),
+            @ApiResponse(responseCode = "409", description = "Person was modified since the given version"),
+            @ApiResponse(responseCode = "412", description = "Person was modified since the If-Match ETag"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePerson(
-            @Parameter(description = "Person ID") @PathVariable Long id) {
+            @Parameter(description = "Person ID") @PathVariable Long id,
+            @Parameter(description = "Expected version") @RequestParam(required = false) Long version,
+            @Parameter(description = "ETag the person must still have") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Request to soft delete person with ID: {}", id);
-        boolean deleted = personService.delete(id);
+        Long expectedVersion = ifMatch != null ? PersonETag.expectedVersion(id, ifMatch) : version;
+        boolean deleted = ifMatch(ifMatch, () -> personService.delete(id, expectedVersion));
         if (deleted) {
             return ResponseEntity.noContent().build();
         } else {
@@ -186,19 +347,26 @@ public class PersonController {
     /**
      * Hard deletes a person by ID.
      * @param id The ID of the person to delete.
-     * @return 204 if deleted, or 404 if not found.
+     * @param version The version the person must still have, if given.
+     * @param ifMatch The ETag the person must still have, if given; takes precedence over {@code version}.
+     * @return 204 if deleted, 404 if not found, 409 if the version is outdated, or 412 if the If-Match ETag is.
      */
     @Operation(summary = "Hard delete a person", description = "Permanently removes a person from the database.")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Person deleted successfully"),
             @ApiResponse(responseCode = "404", description = "Person not found"),
+            @ApiResponse(responseCode = "409", description = "Person was modified since the given version"),
+            @ApiResponse(responseCode = "412", description = "Person was modified since the If-Match ETag"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @DeleteMapping("/{id}/hard")
     public ResponseEntity<Void> hardDeletePerson(
-            @Parameter(description = "Person ID") @PathVariable Long id) {
+            @Parameter(description = "Person ID") @PathVariable Long id,
+            @Parameter(description = "Expected version") @RequestParam(required = false) Long version,
+            @Parameter(description = "ETag the person must still have") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Request to hard delete person with ID: {}", id);
-        boolean deleted = personService.hardDelete(id);
+        Long expectedVersion = ifMatch != null ? PersonETag.expectedVersion(id, ifMatch) : version;
+        boolean deleted = ifMatch(ifMatch, () -> personService.hardDelete(id, expectedVersion));
         if (deleted) {
             return ResponseEntity.noContent().build();
         } else {
@@ -206,4 +374,19 @@ public class PersonController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * Runs a write whose expected version may come from If-Match; a version conflict then fails the
+     * precondition (412) rather than conflicting (409).
+     */
+    private static <T> T ifMatch(String ifMatch, Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (OptimisticLockingFailureException e) {
+            if (ifMatch == null) {
+                throw e;
+            }
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage(), e);
+        }
+    }
 }
\ No newline at end of file
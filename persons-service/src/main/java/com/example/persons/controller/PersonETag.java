@@ -0,0 +1,91 @@
+package com.example.persons.controller;
+
+import com.example.persons.model.Person;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * HTTP validators of a person: a strong ETag made of its ID and version, and its update time as Last-Modified.
+ * The version changes with every write, so the ETag changes exactly when the person does and can be
+ * checked against a cached person without reading the database.
+ */
+public final class PersonETag {
+
+    private PersonETag() {
+    }
+
+    /**
+     * @param person The person.
+     * @return The quoted entity tag, e.g. {@code "42-3"}.
+     */
+    public static String of(Person person) {
+        return "\"" + person.getId() + "-" + person.getVersion() + "\"";
+    }
+
+    /**
+     * Builds a 200 response carrying the person's validators; Spring answers If-None-Match and
+     * If-Modified-Since of GET requests from them with 304 and no body.
+     * @param person The person.
+     * @param cacheControl The Cache-Control of the response.
+     * @return The response.
+     */
+    public static ResponseEntity<Person> ok(Person person, CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(of(person)).cacheControl(cacheControl);
+        if (person.getUpdatedAt() != null) {
+            response.lastModified(person.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant());
+        }
+        return response.body(person);
+    }
+
+    /**
+     * Cache-Control of single-person responses. They are private to the caller; with a zero max-age
+     * caches must revalidate them with the ETag on every use.
+     * @param maxAge How long a response may be used without revalidation.
+     * @return The Cache-Control.
+     */
+    public static CacheControl cacheControl(Duration maxAge) {
+        return (maxAge.isZero() || maxAge.isNegative() ? CacheControl.noCache() : CacheControl.maxAge(maxAge)).cachePrivate();
+    }
+
+    /**
+     * Turns an If-Match header into the version a write must find.
+     * @param id The ID of the person being written.
+     * @param ifMatch The If-Match header, or null.
+     * @return The version, or null if the header is absent or "*".
+     * @throws ResponseStatusException 412 if the header names no entity tag of this person.
+     * @throws ResponseStatusException 400 if the header names several entity tags of this person.
+     */
+    public static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        Long version = null;
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            // Weak tags never match for If-Match
+            if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1) {
+                continue;
+            }
+            if (version != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "If-Match must name a single version of person " + id);
+            }
+            try {
+                version = Long.valueOf(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException e) {
+                version = null;
+            }
+        }
+        if (version == null) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "If-Match " + ifMatch + " does not name a version of person " + id);
+        }
+        return version;
+    }
+}
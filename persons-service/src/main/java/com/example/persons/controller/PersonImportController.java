@@ -0,0 +1,84 @@
+package com.example.persons.controller;
+
+import com.example.persons.model.ImportJob;
+import com.example.persons.service.PersonImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * REST controller for asynchronous person imports.
+ */
+@RestController
+@RequestMapping("/api/persons/import")
+@Tag(name = "Person Import", description = "APIs for asynchronous bulk imports of persons")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonImportController {
+    private static final Logger logger = LoggerFactory.getLogger(PersonImportController.class);
+    private final PersonImportService personImportService;
+
+    public PersonImportController(PersonImportService personImportService) {
+        this.personImportService = personImportService;
+    }
+
+    /**
+     * Submits an import job.
+     * @param upload A JSON array or newline-delimited JSON of persons.
+     * @return 202 with the queued job, 413 if the upload is too large, or 503 if the import queue is full.
+     */
+    @Operation(summary = "Submit an import job", description = "Accepts a JSON array or NDJSON upload of persons and imports it in the background.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Import job queued"),
+            @ApiResponse(responseCode = "413", description = "Upload is larger than persons.import.max-upload-size"),
+            @ApiResponse(responseCode = "503", description = "Import queue is full"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping
+    public ResponseEntity<ImportJob> submitImport(
+            @Parameter(description = "Persons as JSON array or NDJSON") InputStream upload) throws IOException {
+        try {
+            ImportJob job = personImportService.submit(upload);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/persons/import/" + job.getId()))
+                    .body(job);
+        } catch (TaskRejectedException e) {
+            logger.warn("Import queue is full, rejecting import request");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Retrieves the progress of an import job.
+     * @param jobId The ID of the job.
+     * @return The job if found, or 404 if unknown or expired.
+     */
+    @Operation(summary = "Get import job status", description = "Retrieves progress, throughput and rejected rows of an import job.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved job"),
+            @ApiResponse(responseCode = "404", description = "Job not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJob> getImport(
+            @Parameter(description = "Import job ID") @PathVariable String jobId) {
+        return personImportService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    logger.warn("Import job {} not found", jobId);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.persons.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk ingest: how many rows were stored and which were rejected.
+ * @param received Number of rows in the request.
+ * @param inserted Number of rows stored.
+ * @param rejected Rows that failed validation or could not be stored.
+ * @param elapsedMillis Wall-clock time of the ingest.
+ * @param rowsPerSecond Insert throughput.
+ */
+public record BulkIngestReport(int received, int inserted, List<RowError> rejected,
+                               long elapsedMillis, double rowsPerSecond) {
+
+    /**
+     * A rejected row.
+     * @param index Position of the row in the request.
+     * @param email Email of the rejected person, if any.
+     * @param error Why the row was rejected.
+     */
+    public record RowError(int index, String email, String error) {
+    }
+}
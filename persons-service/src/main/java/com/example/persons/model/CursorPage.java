@@ -0,0 +1,46 @@
+package com.example.persons.model;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * A slice of results addressed by an opaque cursor instead of a page number.
+ * @param content The items of this slice.
+ * @param nextCursor The cursor of the following slice, or null on the last slice.
+ * @param hasNext Whether another slice follows.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, boolean hasNext) {
+    /** Largest slice a client may request. */
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * Encodes the ID of the last item of a slice as an opaque cursor.
+     * @param id The ID of the last item.
+     * @return The cursor of the following slice.
+     */
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor into the ID after which the slice starts.
+     * @param cursor The cursor, or null/blank for the first slice.
+     * @return The ID to seek after, 0 for the first slice.
+     * @throws ResponseStatusException 400 if the cursor is malformed.
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.persons.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of an asynchronous person import. Updated by the import worker and
+ * read concurrently by status requests. Other instances read it back from its JSON form.
+ */
+@JsonIgnoreProperties(value = {"rowsPerSecond", "finished"}, allowGetters = true)
+public class ImportJob {
+    /** Only the first rejected rows are kept so a bad upload cannot exhaust memory. */
+    public static final int MAX_REPORTED_REJECTS = 1000;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final Instant submittedAt;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final Queue<BulkIngestReport.RowError> rejected = new ConcurrentLinkedQueue<>();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ImportJob() {
+        this.id = UUID.randomUUID().toString();
+        this.submittedAt = Instant.now();
+    }
+
+    /**
+     * Restores a job from its JSON form.
+     */
+    @JsonCreator
+    ImportJob(@JsonProperty("id") String id, @JsonProperty("status") Status status,
+              @JsonProperty("submittedAt") Instant submittedAt, @JsonProperty("startedAt") Instant startedAt,
+              @JsonProperty("finishedAt") Instant finishedAt, @JsonProperty("processed") long processed,
+              @JsonProperty("inserted") long inserted, @JsonProperty("rejectedCount") long rejectedCount,
+              @JsonProperty("rejected") List<BulkIngestReport.RowError> rejected,
+              @JsonProperty("error") String error) {
+        this.id = id;
+        this.status = status;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.processed.set(processed);
+        this.inserted.set(inserted);
+        this.rejectedCount.set(rejectedCount);
+        if (rejected != null) {
+            this.rejected.addAll(rejected);
+        }
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getInserted() {
+        return inserted.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public List<BulkIngestReport.RowError> getRejected() {
+        return List.copyOf(rejected);
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public double getRowsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(end.toEpochMilli() - start.toEpochMilli(), 1);
+        return processed.get() * 1000.0 / millis;
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    public void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    /**
+     * Adds the result of one written chunk.
+     * @param report The chunk report.
+     * @param offset Position of the chunk's first row in the upload.
+     */
+    public void record(BulkIngestReport report, long offset) {
+        processed.addAndGet(report.received());
+        inserted.addAndGet(report.inserted());
+        for (BulkIngestReport.RowError row : report.rejected()) {
+            if (rejectedCount.getAndIncrement() < MAX_REPORTED_REJECTS) {
+                rejected.add(new BulkIngestReport.RowError((int) (row.index() + offset), row.email(), row.error()));
+            }
+        }
+    }
+
+    /**
+     * Records a row that could not even be parsed.
+     * @param index Position of the row in the upload.
+     * @param error The parse error.
+     */
+    public void recordUnparseable(long index, String error) {
+        processed.incrementAndGet();
+        if (rejectedCount.getAndIncrement() < MAX_REPORTED_REJECTS) {
+            rejected.add(new BulkIngestReport.RowError((int) index, null, error));
+        }
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+}
@@ -3,18 +3,33 @@ package com.example.persons.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.annotations.Where;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Where(clause = "status <> 'DELETED'")
-public class Person {
+// Updates through the entity write only the changed columns
+@DynamicUpdate
+@SQLRestriction("deleted = false")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Person.CACHE_REGION)
+public class Person implements Serializable {
+    /** Second-level cache region holding Person entities. */
+    public static final String CACHE_REGION = "person-entity";
+    /** Second-level query cache region holding the results of lookups by email. */
+    public static final String EMAIL_QUERY_CACHE_REGION = "person-by-email";
+
+    // Pooled sequence ids let Hibernate batch INSERTs; IDENTITY forces one round trip per row.
+    // One allocation covers one JDBC batch (hibernate.jdbc.batch_size), so a batch costs one sequence call
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = 500)
     private Long id;
 
     @NotBlank(message = "Name is mandatory")
@@ -0,0 +1,51 @@
+package com.example.persons.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.*;
+
+/**
+ * Partial update of a person: only non-null fields are changed.
+ * @param name New name, or null to keep it.
+ * @param email New email, or null to keep it.
+ * @param phoneNumber New phone number, or null to keep it.
+ * @param address New address, or null to keep it.
+ * @param age New age, or null to keep it.
+ * @param version The version the person must still have, or null to patch any version.
+ */
+public record PersonPatch(
+        @Pattern(regexp = ".*\\S.*", message = "Name cannot be blank")
+        @Size(min = 2, max = 100, message = "Name must be between 2 and 100 characters")
+        String name,
+
+        @Pattern(regexp = ".*\\S.*", message = "Email cannot be blank")
+        @Email(message = "Email should be valid")
+        String email,
+
+        @Pattern(regexp = "^\\+?[1-9]\\d{1,14}$", message = "Phone number should be valid")
+        String phoneNumber,
+
+        @Size(max = 500, message = "Address cannot exceed 500 characters")
+        String address,
+
+        @Min(value = 0, message = "Age cannot be negative")
+        @Max(value = 150, message = "Age cannot exceed 150")
+        Integer age,
+
+        Long version) {
+
+    /**
+     * @param version The version the person must still have.
+     * @return This patch, conditional on the given version.
+     */
+    public PersonPatch withVersion(Long version) {
+        return new PersonPatch(name, email, phoneNumber, address, age, version);
+    }
+
+    /**
+     * @return Whether this patch changes no field.
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return name == null && email == null && phoneNumber == null && address == null && age == null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.persons.reactive;
+
+import com.example.persons.controller.PersonETag;
+import com.example.persons.model.CursorPage;
+import com.example.persons.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking variant of the read endpoints of PersonController, with the same paths and payloads.
+ */
+@RestController
+@RequestMapping("/api/persons")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePersonController.class);
+    private final ReactivePersonService personService;
+    private final CacheControl personCacheControl;
+
+    public ReactivePersonController(ReactivePersonService personService,
+                                    @Value("${cache.http.max-age:0s}") Duration personMaxAge) {
+        this.personService = personService;
+        this.personCacheControl = PersonETag.cacheControl(personMaxAge);
+    }
+
+    /**
+     * Retrieves a page of persons ordered by ID.
+     * @param page The zero-based page number.
+     * @param size The page size.
+     * @return Page of persons.
+     */
+    @GetMapping
+    public Mono<Page<Person>> getAllPersons(@RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size) {
+        logger.debug("Request to retrieve persons page {} of size {}", page, size);
+        return personService.findAll(page, size);
+    }
+
+    /**
+     * Retrieves persons using keyset pagination.
+     * @param cursor The cursor of the slice to retrieve, omitted for the first slice.
+     * @param size The maximum number of persons per slice.
+     * @return Slice of persons with the cursor of the next slice.
+     */
+    @GetMapping("/scroll")
+    public Mono<CursorPage<Person>> scrollPersons(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int size) {
+        logger.debug("Request to scroll persons with cursor: {}", cursor);
+        return personService.scroll(cursor, size);
+    }
+
+    /**
+     * Retrieves a person by ID, with its ETag and Last-Modified.
+     * @param id The ID of the person.
+     * @return The person if found, 304 if the client's copy is current, or 404 if not found.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Person>> getPersonById(@PathVariable Long id) {
+        logger.debug("Request to retrieve person with ID: {}", id);
+        return personService.findById(id)
+                .map(person -> PersonETag.ok(person, personCacheControl))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retrieves a person by email, with its ETag and Last-Modified.
+     * @param email The email of the person.
+     * @return The person if found, 304 if the client's copy is current, or 404 if not found.
+     */
+    @GetMapping("/email/{email}")
+    public Mono<ResponseEntity<Person>> getPersonByEmail(@PathVariable String email) {
+        logger.debug("Request to retrieve person with email: {}", email);
+        return personService.findByEmail(email)
+                .map(person -> PersonETag.ok(person, personCacheControl))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.persons.reactive;
+
+import com.example.persons.model.Person;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read access to persons over R2DBC. Soft-deleted persons are never returned.
+ */
+public interface ReactivePersonRepository extends R2dbcRepository<Person, Long> {
+    Mono<Person> findByIdAndDeletedFalse(Long id);
+
+    Mono<Person> findByEmailAndDeletedFalse(String email);
+
+    Flux<Person> findAllByDeletedFalse(Pageable pageable);
+
+    Mono<Long> countByDeletedFalse();
+
+    /**
+     * Keyset slice ordered by ID; the page size limits the slice, its offset must be 0.
+     */
+    Flux<Person> findByIdGreaterThanAndDeletedFalseOrderByIdAsc(Long id, Pageable pageable);
+}
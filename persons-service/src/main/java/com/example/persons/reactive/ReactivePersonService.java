@@ -0,0 +1,202 @@
+package com.example.persons.reactive;
+
+import com.example.persons.model.CursorPage;
+import com.example.persons.model.Person;
+import com.example.persons.service.PersonCacheInvalidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only person queries for the reactive read path.
+ * Single persons are cached in Redis as JSON under {@code persons:read:id:<id>}; email lookups
+ * store only the id under {@code persons:read:email:<email>}, so the change events of the
+ * servlet deployment, which carry ids, invalidate both. Redis failures fall back to the database.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonService implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePersonService.class);
+    static final String ID_KEY_PREFIX = "persons:read:id:";
+    static final String EMAIL_KEY_PREFIX = "persons:read:email:";
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ReactivePersonRepository personRepository;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final Duration cacheTtl;
+    private volatile Disposable changeSubscription;
+
+    public ReactivePersonService(ReactivePersonRepository personRepository, ReactiveStringRedisTemplate redisTemplate,
+                                 ReactiveRedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                 @Value("${persons.reactive.cache-ttl:60s}") Duration cacheTtl) {
+        this.personRepository = personRepository;
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Retrieves a person by their ID.
+     * @param id The ID of the person.
+     * @return The person, or empty if not found.
+     */
+    public Mono<Person> findById(Long id) {
+        return cached(id)
+                .switchIfEmpty(Mono.defer(() -> personRepository.findByIdAndDeletedFalse(id)
+                        .flatMap(person -> cache(person, false))));
+    }
+
+    /**
+     * Retrieves a person by their email.
+     * @param email The email of the person.
+     * @return The person, or empty if not found.
+     */
+    public Mono<Person> findByEmail(String email) {
+        return redisTemplate.opsForValue().get(EMAIL_KEY_PREFIX + email)
+                .onErrorResume(e -> redisUnavailable(e))
+                .flatMap(id -> cached(Long.valueOf(id)))
+                // The email may have changed since the pointer was cached
+                .filter(person -> email.equals(person.getEmail()))
+                .switchIfEmpty(Mono.defer(() -> personRepository.findByEmailAndDeletedFalse(email)
+                        .flatMap(person -> cache(person, true))));
+    }
+
+    /**
+     * Retrieves a page of persons ordered by ID.
+     * @param page The zero-based page number.
+     * @param size The page size (max 100).
+     * @return Page of persons.
+     */
+    public Mono<Page<Person>> findAll(int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by("id"));
+        return personRepository.findAllByDeletedFalse(pageable).collectList()
+                .zipWith(personRepository.countByDeletedFalse())
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+    }
+
+    /**
+     * Retrieves persons after the given cursor, ordered by ID.
+     * @param cursor The cursor returned with the previous slice, or null for the first slice.
+     * @param size The maximum number of persons to return.
+     * @return Slice of persons with the cursor of the next slice.
+     */
+    public Mono<CursorPage<Person>> scroll(String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), CursorPage.MAX_SIZE);
+        // Fetch one extra row to learn whether another slice follows
+        return Mono.fromCallable(() -> CursorPage.decodeCursor(cursor))
+                .flatMap(afterId -> personRepository
+                        .findByIdGreaterThanAndDeletedFalseOrderByIdAsc(afterId, PageRequest.ofSize(limit + 1))
+                        .collectList())
+                .map(persons -> {
+                    boolean hasNext = persons.size() > limit;
+                    List<Person> content = hasNext ? persons.subList(0, limit) : persons;
+                    String nextCursor = hasNext
+                            ? CursorPage.encodeCursor(content.get(content.size() - 1).getId()) : null;
+                    return new CursorPage<>(List.copyOf(content), nextCursor, hasNext);
+                });
+    }
+
+    private Mono<Person> cached(Long id) {
+        return redisTemplate.opsForValue().get(ID_KEY_PREFIX + id)
+                .onErrorResume(e -> redisUnavailable(e))
+                .flatMap(json -> {
+                    try {
+                        return Mono.just(objectMapper.readValue(json, Person.class));
+                    } catch (JsonProcessingException e) {
+                        logger.warn("Dropping unreadable cached person {}: {}", id, e.getMessage());
+                        return Mono.empty();
+                    }
+                });
+    }
+
+    private Mono<Person> cache(Person person, boolean withEmail) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(person);
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to cache person {}: {}", person.getId(), e.getMessage());
+            return Mono.just(person);
+        }
+        Mono<Boolean> write = redisTemplate.opsForValue().set(ID_KEY_PREFIX + person.getId(), json, cacheTtl);
+        if (withEmail) {
+            write = write.then(redisTemplate.opsForValue()
+                    .set(EMAIL_KEY_PREFIX + person.getEmail(), String.valueOf(person.getId()), cacheTtl));
+        }
+        return write.onErrorResume(e -> redisUnavailable(e)).thenReturn(person);
+    }
+
+    private <T> Mono<T> redisUnavailable(Throwable e) {
+        logger.debug("Person read cache unavailable, using the database: {}", e.getMessage());
+        return Mono.empty();
+    }
+
+    /**
+     * Evicts cached persons whenever the servlet deployment commits a change to them.
+     * The listener connects in the background, so the service starts without Redis, and
+     * the subscription is re-established with backoff whenever the connection drops.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribeToChanges() {
+        changeSubscription = Flux.usingWhen(
+                        Mono.fromCallable(() -> new ReactiveRedisMessageListenerContainer(connectionFactory)),
+                        container -> container.receive(ChannelTopic.of(PersonCacheInvalidator.CHANGE_TOPIC)),
+                        ReactiveRedisMessageListenerContainer::destroyLater)
+                .map(ReactiveSubscription.Message::getMessage)
+                .flatMap(this::evict)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> logger.warn("Person change subscription lost, resubscribing: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (changeSubscription != null) {
+            changeSubscription.dispose();
+        }
+    }
+
+    Mono<Long> evict(String ids) {
+        List<String> keys = Arrays.stream(ids.split(","))
+                .filter(id -> !id.isBlank())
+                .map(id -> ID_KEY_PREFIX + id.trim())
+                .toList();
+        if (keys.isEmpty()) {
+            return Mono.empty();
+        }
+        return redisTemplate.delete(keys.toArray(String[]::new))
+                .onErrorResume(e -> {
+                    logger.warn("Failed to evict cached persons {}: {}", ids, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
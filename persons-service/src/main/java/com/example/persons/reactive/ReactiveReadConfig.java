@@ -0,0 +1,42 @@
+package com.example.persons.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+/**
+ * Reactive read path, active when the reactive-read profile runs the service on WebFlux.
+ * Only the anonymous GET endpoints of the persons API are served; everything that needs
+ * authentication or writes stays with the servlet deployment and is refused here.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableR2dbcRepositories(basePackageClasses = ReactivePersonRepository.class)
+public class ReactiveReadConfig {
+
+    // Tomcat is on the classpath for the servlet deployment and would otherwise be preferred
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public SecurityWebFilterChain readOnlySecurityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers(HttpMethod.GET, "/api/persons/export", "/api/persons/import/**").denyAll()
+                        .pathMatchers(HttpMethod.GET, "/api/persons/**").permitAll()
+                        .pathMatchers("/actuator/**").permitAll()
+                        .anyExchange().denyAll()
+                )
+                .build();
+    }
+}
@@ -1,15 +1,56 @@
 package com.example.persons.repository;
 
 import com.example.persons.model.Person;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, PersonWriteRepository {
+    /**
+     * Results are kept in the second-level query cache, which Hibernate invalidates on every write to persons.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Person.EMAIL_QUERY_CACHE_REGION)
+    })
     Optional<Person> findByEmail(String email);
+    List<Person> findByEmailIn(Collection<String> emails);
+
+    /**
+     * Reads the rows and overwrites their second-level cache entries, which may predate a write of
+     * another instance whose eviction has not arrived yet.
+     */
+    @QueryHints({
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "REFRESH")
+    })
+    List<Person> findByIdIn(Collection<Long> ids);
     Page<Person> findByNameContainingOrEmailContaining(String name, String email, Pageable pageable);
+
+    /**
+     * Keyset page: seeks on the primary key index instead of scanning an OFFSET, and issues no count query.
+     */
+    List<Person> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Streams all persons through a server-side cursor. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Person> streamAllByOrderByIdAsc();
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.persons.repository;
+
+import com.example.persons.model.Person;
+import com.example.persons.model.PersonPatch;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Optional;
+
+/**
+ * Conditional writes: each method changes a person with one UPDATE or DELETE instead of loading it
+ * first, and returns what the caller needs. Soft-deleted persons are never changed. When an expected
+ * version is given, the row is only changed if its version still matches.
+ */
+public interface PersonWriteRepository {
+    /**
+     * Replaces all updatable fields of a person and bumps its version.
+     * @param id The ID of the person.
+     * @param person The new values; its version, if set, is the version the row must have.
+     * @return The updated person with the email it had before, or empty if not found.
+     * @throws OptimisticLockingFailureException If the person exists with another version.
+     */
+    Optional<UpdatedPerson> replace(Long id, Person person);
+
+    /**
+     * Sets only the non-null fields of the patch and bumps the version.
+     * @param id The ID of the person.
+     * @param patch The fields to change; its version, if set, is the version the row must have.
+     * @return The updated person with the email it had before, or empty if not found.
+     * @throws OptimisticLockingFailureException If the person exists with another version.
+     */
+    Optional<UpdatedPerson> patch(Long id, PersonPatch patch);
+
+    /**
+     * Marks a person as deleted and bumps the version.
+     * @param id The ID of the person.
+     * @param expectedVersion The version the row must have, or null to delete any version.
+     * @return The email of the deleted person, or empty if not found.
+     * @throws OptimisticLockingFailureException If the person exists with another version.
+     */
+    Optional<String> softDelete(Long id, Long expectedVersion);
+
+    /**
+     * Removes a person's row.
+     * @param id The ID of the person.
+     * @param expectedVersion The version the row must have, or null to delete any version.
+     * @return The email of the deleted person, or empty if not found.
+     * @throws OptimisticLockingFailureException If the person exists with another version.
+     */
+    Optional<String> hardDelete(Long id, Long expectedVersion);
+
+    /**
+     * A person as written by {@link #replace} or {@link #patch}, with the email it was stored under before.
+     * @param person The updated person.
+     * @param previousEmail The email before the update.
+     */
+    record UpdatedPerson(Person person, String previousEmail) {
+    }
+}
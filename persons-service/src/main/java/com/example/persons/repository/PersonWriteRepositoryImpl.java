@@ -0,0 +1,257 @@
+package com.example.persons.repository;
+
+import com.example.persons.model.Person;
+import com.example.persons.model.PersonPatch;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link PersonWriteRepository}. Each write is one UPDATE or DELETE conditional on
+ * the id, {@code deleted = false} and the expected version, and bumps the version itself; only the
+ * given columns are set. Whether a write that matched no row lost a race is only probed then.
+ * <p>
+ * On PostgreSQL the statements return the written row with RETURNING, so a write is one round trip;
+ * other databases (H2 in tests) run the same conditions as JPQL bulk statements and read the email and
+ * the updated row separately in the same transaction. Either way the second-level cache still holds
+ * the old row afterwards, so its eviction is up to the caller.
+ */
+class PersonWriteRepositoryImpl implements PersonWriteRepository {
+    // Locks the row and remembers its email, so the old email's cache entries can be evicted
+    private static final String UPDATE_SQL = """
+            WITH previous AS (
+                SELECT id, email FROM person WHERE id = :id AND deleted = false FOR UPDATE
+            )
+            UPDATE person p SET %s, updated_at = :now, version = p.version + 1
+            FROM previous
+            WHERE p.id = previous.id%s
+            RETURNING p.*, previous.email AS previous_email
+            """;
+    private static final String SOFT_DELETE_SQL = """
+            UPDATE person SET deleted = true, updated_at = :now, version = version + 1
+            WHERE id = :id AND deleted = false%s
+            RETURNING email
+            """;
+    private static final String HARD_DELETE_SQL = """
+            DELETE FROM person
+            WHERE id = :id AND deleted = false%s
+            RETURNING email
+            """;
+    private static final String UPDATE_JPQL = """
+            UPDATE Person p SET %s, p.updatedAt = :now, p.version = p.version + 1
+            WHERE p.id = :id AND p.deleted = false%s
+            """;
+    private static final String SOFT_DELETE_JPQL = """
+            UPDATE Person p SET p.deleted = true, p.updatedAt = :now, p.version = p.version + 1
+            WHERE p.id = :id AND p.deleted = false%s
+            """;
+    private static final String HARD_DELETE_JPQL = """
+            DELETE FROM Person p
+            WHERE p.id = :id AND p.deleted = false%s
+            """;
+
+    /**
+     * The fields a write may set, with their column and where their value comes from.
+     */
+    private enum Field {
+        NAME("name", "name", String.class, Person::getName, PersonPatch::name),
+        EMAIL("email", "email", String.class, Person::getEmail, PersonPatch::email),
+        PHONE_NUMBER("phoneNumber", "phone_number", String.class, Person::getPhoneNumber, PersonPatch::phoneNumber),
+        ADDRESS("address", "address", String.class, Person::getAddress, PersonPatch::address),
+        AGE("age", "age", Integer.class, Person::getAge, PersonPatch::age);
+
+        private final String attribute;
+        private final String column;
+        private final Class<?> type;
+        private final Function<Person, Object> ofPerson;
+        private final Function<PersonPatch, Object> ofPatch;
+
+        Field(String attribute, String column, Class<?> type,
+              Function<Person, Object> ofPerson, Function<PersonPatch, Object> ofPatch) {
+            this.attribute = attribute;
+            this.column = column;
+            this.type = type;
+            this.ofPerson = ofPerson;
+            this.ofPatch = ofPatch;
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final boolean returning;
+
+    PersonWriteRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.returning = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @Override
+    public Optional<UpdatedPerson> replace(Long id, Person person) {
+        // The person may be the managed copy itself, whose pending changes bump its version when flushed
+        detach(id);
+        Map<Field, Object> values = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            values.put(field, field.ofPerson.apply(person));
+        }
+        return update(id, values, person.getVersion());
+    }
+
+    @Override
+    public Optional<UpdatedPerson> patch(Long id, PersonPatch patch) {
+        Map<Field, Object> values = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            Object value = field.ofPatch.apply(patch);
+            if (value != null) {
+                values.put(field, value);
+            }
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Patch of person " + id + " contains no fields");
+        }
+        detach(id);
+        return update(id, values, patch.version());
+    }
+
+    @Override
+    public Optional<String> softDelete(Long id, Long expectedVersion) {
+        detach(id);
+        Optional<String> email = returning
+                ? email(nativeQuery(SOFT_DELETE_SQL, id, expectedVersion).setParameter("now", LocalDateTime.now()))
+                : delete(jpqlQuery(SOFT_DELETE_JPQL, id, expectedVersion).setParameter("now", LocalDateTime.now()), id);
+        return checkNotModified(email, id, expectedVersion);
+    }
+
+    @Override
+    public Optional<String> hardDelete(Long id, Long expectedVersion) {
+        detach(id);
+        Optional<String> email = returning
+                ? email(nativeQuery(HARD_DELETE_SQL, id, expectedVersion))
+                : delete(jpqlQuery(HARD_DELETE_JPQL, id, expectedVersion), id);
+        return checkNotModified(email, id, expectedVersion);
+    }
+
+    private Optional<UpdatedPerson> update(Long id, Map<Field, Object> values, Long expectedVersion) {
+        return checkNotModified(returning ? updateReturning(id, values, expectedVersion)
+                : updateThenRead(id, values, expectedVersion), id, expectedVersion);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<UpdatedPerson> updateReturning(Long id, Map<Field, Object> values, Long expectedVersion) {
+        String assignments = values.keySet().stream()
+                .map(field -> field.column + " = :" + field.column)
+                .collect(Collectors.joining(", "));
+        NativeQuery<?> query = nativeQuery(UPDATE_SQL.formatted(assignments, "%s"), id, expectedVersion)
+                .addEntity("p", Person.class)
+                .addScalar("previous_email", StandardBasicTypes.STRING)
+                .setParameter("now", LocalDateTime.now());
+        // Typed binding: PostgreSQL cannot infer the type of a null parameter
+        values.forEach((field, value) -> query.setParameter(field.column, value, (Class<Object>) field.type));
+        return query.getResultList().stream()
+                .findFirst()
+                .map(row -> {
+                    Object[] columns = (Object[]) row;
+                    return new UpdatedPerson((Person) columns[0], (String) columns[1]);
+                });
+    }
+
+    private Optional<UpdatedPerson> updateThenRead(Long id, Map<Field, Object> values, Long expectedVersion) {
+        // The old email is only needed, and only read, when it changes
+        Optional<String> previousEmail = values.containsKey(Field.EMAIL) ? lockEmail(id) : Optional.empty();
+        if (values.containsKey(Field.EMAIL) && previousEmail.isEmpty()) {
+            return Optional.empty();
+        }
+        String assignments = values.keySet().stream()
+                .map(field -> "p." + field.attribute + " = :" + field.attribute)
+                .collect(Collectors.joining(", "));
+        Query query = jpqlQuery(UPDATE_JPQL.formatted(assignments, "%s"), id, expectedVersion)
+                .setParameter("now", LocalDateTime.now());
+        values.forEach((field, value) -> query.setParameter(field.attribute, value));
+        if (query.executeUpdate() == 0) {
+            return Optional.empty();
+        }
+        // The second-level cache still holds the row as it was before the statement
+        Person person = entityManager.find(Person.class, id,
+                Map.of(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS));
+        return Optional.of(new UpdatedPerson(person, previousEmail.orElse(person.getEmail())));
+    }
+
+    private Optional<String> delete(Query query, Long id) {
+        // The row's email is still needed to evict its cache entries, so it is read (and locked) first
+        Optional<String> email = lockEmail(id);
+        return email.isPresent() && query.executeUpdate() > 0 ? email : Optional.empty();
+    }
+
+    private Optional<String> lockEmail(Long id) {
+        return entityManager.createQuery("SELECT p.email FROM Person p WHERE p.id = :id", String.class)
+                .setParameter("id", id)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultStream()
+                .findFirst();
+    }
+
+    private static Optional<String> email(NativeQuery<?> query) {
+        return query.addScalar("email", StandardBasicTypes.STRING).getResultList().stream()
+                .findFirst()
+                .map(String.class::cast);
+    }
+
+    /**
+     * A conditional write that matched no row either lost a race or targets a missing person;
+     * only the former is an error, and only then is the row looked up again.
+     */
+    private <T> Optional<T> checkNotModified(Optional<T> written, Long id, Long expectedVersion) {
+        if (written.isEmpty() && expectedVersion != null
+                && !entityManager.createQuery("SELECT p.id FROM Person p WHERE p.id = :id", Long.class)
+                        .setParameter("id", id)
+                        .getResultList().isEmpty()) {
+            throw new OptimisticLockingFailureException(
+                    "Person " + id + " has changed since version " + expectedVersion);
+        }
+        return written;
+    }
+
+    /**
+     * The statements bypass the persistence context, which would otherwise keep returning its copy of
+     * the person with the old state; pending changes are flushed before that copy is dropped.
+     */
+    private void detach(Long id) {
+        entityManager.flush();
+        entityManager.detach(entityManager.getReference(Person.class, id));
+    }
+
+    private NativeQuery<?> nativeQuery(String sql, Long id, Long expectedVersion) {
+        NativeQuery<?> query = entityManager.createNativeQuery(
+                sql.formatted(versionCondition("", expectedVersion))).unwrap(NativeQuery.class);
+        return bind(query, id, expectedVersion);
+    }
+
+    private Query jpqlQuery(String jpql, Long id, Long expectedVersion) {
+        return bind(entityManager.createQuery(jpql.formatted(versionCondition("p.", expectedVersion))), id, expectedVersion);
+    }
+
+    private static <Q extends Query> Q bind(Q query, Long id, Long expectedVersion) {
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return query;
+    }
+
+    private static String versionCondition(String alias, Long expectedVersion) {
+        return expectedVersion != null ? " AND " + alias + "version = :version" : "";
+    }
+}
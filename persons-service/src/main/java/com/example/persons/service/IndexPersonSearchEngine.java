@@ -0,0 +1,290 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Embedded inverted index over name, email (local part and domain) and phone number.
+ * Built from the database at startup and kept up to date from the "persons changed"
+ * topic that {@link PersonCacheInvalidator} publishes after every committed write,
+ * so searches are answered without touching PostgreSQL.
+ * Every query term is matched as a prefix; all terms must match.
+ */
+@Component
+@ConditionalOnProperty(name = "persons.search.engine", havingValue = "index")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IndexPersonSearchEngine implements PersonSearchEngine, MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(IndexPersonSearchEngine.class);
+    private static final int BUILD_CLEAR_INTERVAL = 1000;
+
+    private final PersonRepository personRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, LongPostings> postings = new TreeMap<>();
+    private final LongObjectMap<Document> documents = new LongObjectMap<>();
+    private LongPostings removedDuringBuild;
+
+    /**
+     * What the index keeps of a person: the fields a search result renders, keyed by id outside the
+     * record, instead of the loaded entity.
+     */
+    private record Document(long version, String name, String email, String phoneNumber, String address,
+                            Integer age, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        static Document of(Person person) {
+            return new Document(person.getVersion() != null ? person.getVersion() : 0, person.getName(),
+                    person.getEmail(), person.getPhoneNumber(), person.getAddress(), person.getAge(),
+                    person.getCreatedAt(), person.getUpdatedAt());
+        }
+
+        Person toPerson(long id) {
+            Person person = new Person();
+            person.setId(id);
+            person.setVersion(version);
+            person.setName(name);
+            person.setEmail(email);
+            person.setPhoneNumber(phoneNumber);
+            person.setAddress(address);
+            person.setAge(age);
+            person.setCreatedAt(createdAt);
+            person.setUpdatedAt(updatedAt);
+            return person;
+        }
+    }
+
+    public IndexPersonSearchEngine(PersonRepository personRepository, EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager,
+                                   RedisMessageListenerContainer listenerContainer) {
+        this.personRepository = personRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        listenerContainer.addMessageListener(this, new ChannelTopic(PersonCacheInvalidator.CHANGE_TOPIC));
+    }
+
+    /**
+     * Loads every person into the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        withWriteLock(() -> removedDuringBuild = new LongPostings());
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Person> persons = personRepository.streamAllByOrderByIdAsc()) {
+                List<Person> batch = new ArrayList<>(BUILD_CLEAR_INTERVAL);
+                persons.forEach(person -> {
+                    batch.add(person);
+                    if (batch.size() == BUILD_CLEAR_INTERVAL) {
+                        indexBuildBatch(batch);
+                    }
+                });
+                indexBuildBatch(batch);
+            }
+        });
+        withWriteLock(() -> removedDuringBuild = null);
+        logger.info("Built person search index with {} persons and {} terms in {} ms",
+                documents.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void indexBuildBatch(List<Person> batch) {
+        withWriteLock(() -> batch.stream()
+                .filter(person -> !removedDuringBuild.contains(person.getId()))
+                .forEach(this::put));
+        entityManager.clear();
+        batch.clear();
+    }
+
+    @Override
+    public Page<Person> search(String query, Pageable pageable) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        lock.readLock().lock();
+        try {
+            long[] matches = null;
+            for (String term : terms) {
+                long[] termMatches = prefixMatches(term);
+                matches = matches == null ? termMatches : LongPostings.intersect(matches, termMatches);
+                if (matches.length == 0) {
+                    break;
+                }
+            }
+            int from = (int) Math.min(pageable.getOffset(), matches.length);
+            int to = Math.min(from + pageable.getPageSize(), matches.length);
+            List<Person> content = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                content.add(documents.get(matches[i]).toPerson(matches[i]));
+            }
+            return new PageImpl<>(content, pageable, matches.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] prefixMatches(String prefix) {
+        return LongPostings.union(List.copyOf(
+                postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()));
+    }
+
+    /**
+     * Re-reads the persons named in a change notification and updates their entries.
+     * Persons that no longer exist (or are soft deleted) are removed from the index.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        List<Long> ids = new ArrayList<>();
+        for (String id : body.split(",")) {
+            if (!id.isBlank()) {
+                ids.add(Long.parseLong(id.trim()));
+            }
+        }
+        refresh(ids);
+    }
+
+    /**
+     * Brings the index entries of the given persons in line with the database.
+     * @param ids The IDs of changed persons.
+     */
+    public void refresh(List<Long> ids) {
+        // Also repairs this instance's second-level cache should the change arrive before its eviction
+        List<Person> current = personRepository.findByIdIn(ids);
+        Set<Long> missing = new HashSet<>(ids);
+        withWriteLock(() -> {
+            for (Person person : current) {
+                missing.remove(person.getId());
+                put(person);
+            }
+            for (Long id : missing) {
+                remove(id);
+                if (removedDuringBuild != null) {
+                    removedDuringBuild.add(id);
+                }
+            }
+        });
+        logger.debug("Refreshed {} persons in search index ({} removed)", ids.size(), missing.size());
+    }
+
+    private void put(Person person) {
+        long id = person.getId();
+        Document existing = documents.get(id);
+        if (existing != null) {
+            // A change notification may already have delivered a newer version than the build cursor
+            if (person.getVersion() != null && existing.version() > person.getVersion()) {
+                return;
+            }
+            removeTerms(id, existing);
+        }
+        Document document = Document.of(person);
+        documents.put(id, document);
+        for (String term : terms(document.name(), document.email(), document.phoneNumber())) {
+            postings.computeIfAbsent(term, t -> new LongPostings()).add(id);
+        }
+    }
+
+    private void remove(long id) {
+        Document existing = documents.remove(id);
+        if (existing != null) {
+            removeTerms(id, existing);
+        }
+    }
+
+    private void removeTerms(long id, Document document) {
+        for (String term : terms(document.name(), document.email(), document.phoneNumber())) {
+            LongPostings list = postings.get(term);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Terms indexed for a person: name words, the email local part and its pieces,
+     * the email domain and its labels, and the phone number digits.
+     */
+    static Set<String> terms(Person person) {
+        return terms(person.getName(), person.getEmail(), person.getPhoneNumber());
+    }
+
+    private static Set<String> terms(String name, String email, String phone) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(name));
+        if (email != null) {
+            String lower = email.toLowerCase(Locale.ROOT);
+            int at = lower.indexOf('@');
+            String localPart = at >= 0 ? lower.substring(0, at) : lower;
+            String domain = at >= 0 ? lower.substring(at + 1) : "";
+            terms.add(localPart);
+            terms.addAll(tokenize(localPart));
+            if (!domain.isEmpty()) {
+                terms.add(domain);
+                terms.addAll(tokenize(domain));
+            }
+        }
+        if (phone != null) {
+            String digits = phone.replaceAll("\\D", "");
+            if (!digits.isEmpty()) {
+                terms.add(digits);
+            }
+        }
+        terms.remove("");
+        return terms;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Portable search using LIKE '%query%'. Works on any database but cannot use an index.
+ */
+@Component
+@ConditionalOnProperty(name = "persons.search.engine", havingValue = "like", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LikePersonSearchEngine implements PersonSearchEngine {
+    private final PersonRepository personRepository;
+
+    public LikePersonSearchEngine(PersonRepository personRepository) {
+        this.personRepository = personRepository;
+    }
+
+    @Override
+    public Page<Person> search(String query, Pageable pageable) {
+        return personRepository.findByNameContainingOrEmailContaining(query, query, pageable);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.persons.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted, duplicate-free list of person ids backed by a primitive long array.
+ * Not thread-safe; guarded by the index lock of {@link IndexPersonSearchEngine}.
+ */
+final class LongPostings {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids = EMPTY;
+    private int size;
+
+    void add(long id) {
+        if (size > 0 && ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Unites several lists at once: their ids are concatenated, sorted and deduplicated in one pass,
+     * where merging them one by one would copy the growing result again for every list.
+     * @param lists The lists to unite.
+     * @return The sorted, duplicate-free union.
+     */
+    static long[] union(List<LongPostings> lists) {
+        if (lists.size() == 1) {
+            LongPostings list = lists.get(0);
+            return Arrays.copyOf(list.ids, list.size);
+        }
+        int total = 0;
+        for (LongPostings list : lists) {
+            total += list.size;
+        }
+        long[] result = new long[total];
+        int n = 0;
+        for (LongPostings list : lists) {
+            System.arraycopy(list.ids, 0, result, n, list.size);
+            n += list.size;
+        }
+        Arrays.sort(result);
+        int distinct = 0;
+        for (long id : result) {
+            if (distinct == 0 || result[distinct - 1] != id) {
+                result[distinct++] = id;
+            }
+        }
+        return distinct == result.length ? result : Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * Intersects two sorted, duplicate-free arrays.
+     */
+    static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                result[n++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.persons.service;
+
+import com.example.persons.model.BulkIngestReport;
+import com.example.persons.model.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for high-throughput insertion of many Person entities.
+ * Rows are written in chunks, each in its own transaction and as one JDBC batch.
+ * A failing chunk is retried row by row so that only the offending rows are rejected.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonBulkIngestService {
+    private static final Logger logger = LoggerFactory.getLogger(PersonBulkIngestService.class);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final PersonCacheInvalidator cacheInvalidator;
+
+    @Value("${persons.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    public PersonBulkIngestService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                   Validator validator, PersonCacheInvalidator cacheInvalidator) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.cacheInvalidator = cacheInvalidator;
+    }
+
+    /**
+     * Validates and inserts the given persons.
+     * @param persons The persons to insert; client-supplied ids are ignored.
+     * @return Report of inserted and rejected rows.
+     */
+    public BulkIngestReport ingest(List<Person> persons) {
+        logger.info("Bulk ingesting {} persons in chunks of {}", persons.size(), chunkSize);
+        long start = System.nanoTime();
+        List<BulkIngestReport.RowError> rejected = new ArrayList<>();
+        List<Integer> chunk = new ArrayList<>(chunkSize);
+        int inserted = 0;
+
+        for (int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            String violations = validate(person);
+            if (violations != null) {
+                rejected.add(new BulkIngestReport.RowError(i, person.getEmail(), violations));
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() == chunkSize) {
+                inserted += insertChunk(persons, chunk, rejected);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            inserted += insertChunk(persons, chunk, rejected);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = elapsedMillis > 0 ? inserted * 1000.0 / elapsedMillis : inserted;
+        logger.info("Bulk ingest finished: {} inserted, {} rejected in {} ms",
+                inserted, rejected.size(), elapsedMillis);
+        return new BulkIngestReport(persons.size(), inserted, rejected, elapsedMillis, rowsPerSecond);
+    }
+
+    private String validate(Person person) {
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private int insertChunk(List<Person> persons, List<Integer> chunk, List<BulkIngestReport.RowError> rejected) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persistAll(persons, chunk));
+            return chunk.size();
+        } catch (RuntimeException e) {
+            logger.warn("Chunk of {} persons failed, retrying row by row: {}", chunk.size(), rootMessage(e));
+        }
+
+        int inserted = 0;
+        for (Integer index : chunk) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> persistAll(persons, List.of(index)));
+                inserted++;
+            } catch (RuntimeException e) {
+                rejected.add(new BulkIngestReport.RowError(index, persons.get(index).getEmail(), rootMessage(e)));
+            }
+        }
+        return inserted;
+    }
+
+    private void persistAll(List<Person> persons, List<Integer> indexes) {
+        List<Long> ids = new ArrayList<>(indexes.size());
+        List<String> emails = new ArrayList<>(indexes.size());
+        try {
+            for (Integer index : indexes) {
+                Person person = persons.get(index);
+                person.setId(null);
+                person.setVersion(null);
+                entityManager.persist(person);
+            }
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            // Reset generated state so the rows can be retried in a fresh transaction
+            for (Integer index : indexes) {
+                persons.get(index).setId(null);
+                persons.get(index).setVersion(null);
+            }
+            throw e;
+        } finally {
+            entityManager.clear();
+        }
+        for (Integer index : indexes) {
+            ids.add(persons.get(index).getId());
+            emails.add(persons.get(index).getEmail());
+        }
+        cacheInvalidator.evictAll(ids, emails);
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        return cause.getMessage();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.persons.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Key-precise invalidation for the person caches.
+ * Single entries are evicted by id and email; paginated results are invalidated
+ * by bumping a generation counter that is part of every "persons" cache key, so
+ * stale pages are simply never read again and age out through their TTL.
+ * The counter lives in Redis, but each instance keeps its last known value in memory and only
+ * re-reads it when a write is announced on {@link #CHANGE_TOPIC}, so page reads cost no Redis round trip.
+ * Other instances are told to evict the persons from their Hibernate second-level cache first, so
+ * that a reload after the Redis eviction is less likely to copy an old entity back into Redis. Changed
+ * ids are also announced on {@link #CHANGE_TOPIC} for derived in-memory state such as the search index.
+ */
+@Component("personCacheInvalidator")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonCacheInvalidator implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(PersonCacheInvalidator.class);
+    static final String PERSON_CACHE = "person";
+    static final String PERSON_BY_EMAIL_CACHE = "personByEmail";
+    static final String GENERATION_KEY = "persons:generation";
+    /** Topic carrying comma-separated ids of persons changed by a committed write. */
+    public static final String CHANGE_TOPIC = "persons:changed";
+
+    private final CacheManager cacheManager;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final PersonSecondLevelCache secondLevelCache;
+    // -1 until first read from Redis
+    private final AtomicLong generation = new AtomicLong(-1);
+
+    public PersonCacheInvalidator(CacheManager cacheManager, RedisTemplate<String, String> redisTemplate,
+                                  PersonSecondLevelCache secondLevelCache,
+                                  RedisMessageListenerContainer listenerContainer) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.secondLevelCache = secondLevelCache;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_TOPIC));
+    }
+
+    /**
+     * Returns the current generation of the paginated "persons" cache as known to this instance.
+     * @return The generation, "0" if no write has happened yet.
+     */
+    public String generation() {
+        long current = generation.get();
+        return String.valueOf(current >= 0 ? current : readGeneration());
+    }
+
+    /**
+     * Another instance (or this one) committed a write and bumped the generation; pick it up.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            readGeneration();
+        } catch (Exception e) {
+            logger.warn("Failed to read the persons page cache generation: {}", e.getMessage());
+        }
+    }
+
+    private long readGeneration() {
+        String stored = redisTemplate.opsForValue().get(GENERATION_KEY);
+        return advanceGeneration(stored != null ? Long.parseLong(stored) : 0);
+    }
+
+    // Messages and increments may arrive out of order; the generation never goes back
+    private long advanceGeneration(long observed) {
+        return generation.accumulateAndGet(observed, Math::max);
+    }
+
+    /**
+     * Evicts the entries of one person once the surrounding transaction commits.
+     * @param id The ID of the person.
+     * @param emails The emails the person was cached under (old and new).
+     */
+    public void evict(Long id, String... emails) {
+        afterCommit(() -> {
+            secondLevelCache.publish(List.of(id));
+            evictKey(PERSON_CACHE, id);
+            for (String email : emails) {
+                evictKey(PERSON_BY_EMAIL_CACHE, email);
+            }
+            nextGeneration();
+            publishChange(String.valueOf(id));
+        });
+    }
+
+    /**
+     * Evicts the entries of a person changed by a conditional UPDATE or DELETE once the surrounding
+     * transaction commits. Hibernate does not track those statements on every database, so this
+     * instance's second-level cache entry and cached email lookups are evicted as well; a soft-deleted
+     * row would otherwise still be returned by loads by id, which skip the deleted = false restriction.
+     * @param id The ID of the person.
+     * @param emails The emails the person was cached under (old and new).
+     */
+    public void evictWritten(Long id, String... emails) {
+        afterCommit(() -> {
+            secondLevelCache.evict(List.of(id));
+            secondLevelCache.evictEmailLookups();
+        });
+        evict(id, emails);
+    }
+
+    /**
+     * Evicts the id and email entries of several persons at once.
+     * @param ids The IDs of the persons.
+     * @param emails The emails of the persons.
+     */
+    public void evictAll(Collection<Long> ids, Collection<String> emails) {
+        afterCommit(() -> {
+            secondLevelCache.publish(ids);
+            ids.forEach(id -> evictKey(PERSON_CACHE, id));
+            emails.forEach(email -> evictKey(PERSON_BY_EMAIL_CACHE, email));
+            nextGeneration();
+            publishChange(ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        });
+    }
+
+    private void evictKey(String cacheName, Object key) {
+        if (key == null) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void nextGeneration() {
+        Long next = redisTemplate.opsForValue().increment(GENERATION_KEY);
+        if (next != null) {
+            advanceGeneration(next);
+        }
+        logger.debug("Persons page cache generation is now {}", next);
+    }
+
+    private void publishChange(String ids) {
+        try {
+            redisTemplate.convertAndSend(CHANGE_TOPIC, ids);
+        } catch (Exception e) {
+            logger.warn("Failed to publish person change for ids {}: {}", ids, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the eviction after commit so a concurrent reader cannot repopulate the
+     * cache with the pre-commit row between the eviction and the commit.
+     */
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Service class for bulk exporting Person entities with constant memory.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonExportService {
+    private static final Logger logger = LoggerFactory.getLogger(PersonExportService.class);
+    private static final String CSV_HEADER = "id,name,email,phoneNumber,address,age,createdAt,updatedAt";
+
+    public enum Format {
+        NDJSON, CSV;
+
+        /**
+         * Parses a format name as given by a client.
+         * @param name The name of the format, in any case.
+         * @return The format.
+         * @throws ResponseStatusException 400 if there is no such format.
+         */
+        public static Format parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + name);
+            }
+        }
+    }
+
+    private final PersonRepository personRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public PersonExportService(PersonRepository personRepository, EntityManager entityManager,
+                               ObjectMapper objectMapper) {
+        this.personRepository = personRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Streams every person to the given output, one record per line.
+     * Rows are read through a server-side cursor and detached once written,
+     * so memory use does not grow with the number of rows.
+     * @param out The stream to write to; it is flushed but not closed.
+     * @param format The output format.
+     * @return The number of persons written.
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, Format format) throws IOException {
+        logger.info("Exporting persons as {}", format);
+        long count;
+        try (Stream<Person> persons = personRepository.streamAllByOrderByIdAsc()) {
+            count = format == Format.CSV ? writeCsv(persons.iterator(), out) : writeNdjson(persons.iterator(), out);
+        }
+        logger.info("Exported {} persons", count);
+        return count;
+    }
+
+    private long writeNdjson(Iterator<Person> persons, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (persons.hasNext()) {
+                Person person = persons.next();
+                generator.writeObject(person);
+                generator.writeRaw('\n');
+                entityManager.detach(person);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<Person> persons, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (persons.hasNext()) {
+            Person person = persons.next();
+            writer.write(String.valueOf(person.getId()));
+            writer.write(',');
+            writeCsvField(writer, person.getName());
+            writer.write(',');
+            writeCsvField(writer, person.getEmail());
+            writer.write(',');
+            writeCsvField(writer, person.getPhoneNumber());
+            writer.write(',');
+            writeCsvField(writer, person.getAddress());
+            writer.write(',');
+            writeCsvField(writer, person.getAge() != null ? person.getAge().toString() : null);
+            writer.write(',');
+            writeCsvField(writer, person.getCreatedAt() != null ? person.getCreatedAt().toString() : null);
+            writer.write(',');
+            writeCsvField(writer, person.getUpdatedAt() != null ? person.getUpdatedAt().toString() : null);
+            writer.write('\n');
+            entityManager.detach(person);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
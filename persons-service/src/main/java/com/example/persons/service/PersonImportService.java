@@ -0,0 +1,241 @@
+package com.example.persons.service;
+
+import com.example.persons.model.BulkIngestReport;
+import com.example.persons.model.ImportJob;
+import com.example.persons.model.Person;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service class for asynchronous person imports.
+ * The upload is spooled to a temporary file so the request thread is released at once;
+ * a worker then parses it incrementally and writes it chunk by chunk, parsing the next
+ * chunk while the previous one is being written.
+ * The instance running a job keeps it in memory and saves its state to Redis on every status change
+ * and at most every {@link #SAVE_INTERVAL} while it runs, so status requests routed to any instance find it.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonImportService {
+    private static final Logger logger = LoggerFactory.getLogger(PersonImportService.class);
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+    private static final Duration SAVE_INTERVAL = Duration.ofSeconds(1);
+    static final String JOB_KEY_PREFIX = "persons:import:";
+
+    private final PersonBulkIngestService personBulkIngestService;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor jobExecutor;
+    private final TaskExecutor writeExecutor;
+    private final RedisTemplate<String, String> redisTemplate;
+    // Jobs submitted to this instance; their state here is always current
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${persons.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${persons.import.max-upload-size:100MB}")
+    private DataSize maxUploadSize;
+
+    public PersonImportService(PersonBulkIngestService personBulkIngestService, ObjectMapper objectMapper,
+                               @Qualifier("personImportExecutor") TaskExecutor jobExecutor,
+                               @Qualifier("personImportWriteExecutor") TaskExecutor writeExecutor,
+                               RedisTemplate<String, String> redisTemplate) {
+        this.personBulkIngestService = personBulkIngestService;
+        this.objectMapper = objectMapper;
+        this.jobExecutor = jobExecutor;
+        this.writeExecutor = writeExecutor;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Spools the upload and queues an import job for it.
+     * @param upload A JSON array or newline-delimited JSON of persons.
+     * @return The queued job.
+     * @throws org.springframework.core.task.TaskRejectedException if the import queue is full.
+     * @throws ResponseStatusException 413 if the upload is larger than {@code persons.import.max-upload-size}.
+     */
+    public ImportJob submit(InputStream upload) throws IOException {
+        purgeFinishedJobs();
+        Path file = Files.createTempFile("person-import-", ".json");
+        try {
+            long size = spool(upload, file);
+            ImportJob job = new ImportJob();
+            jobs.put(job.getId(), job);
+            try {
+                jobExecutor.execute(() -> run(job, file));
+            } catch (RuntimeException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            save(job);
+            logger.info("Queued person import job {} ({} bytes)", job.getId(), size);
+            return job;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves an import job by its ID, from this instance if it runs the job and from Redis otherwise.
+     * @param jobId The ID of the job.
+     * @return Optional containing the job, or empty if unknown or expired.
+     */
+    public Optional<ImportJob> findJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job != null) {
+            return Optional.of(job);
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(JOB_KEY_PREFIX + jobId);
+            return json != null ? Optional.of(objectMapper.readValue(json, ImportJob.class)) : Optional.empty();
+        } catch (Exception e) {
+            logger.warn("Failed to read import job {} from Redis: {}", jobId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Copies the upload to the spool file, refusing it as soon as it grows past the size limit.
+     * @return The size of the upload in bytes.
+     */
+    private long spool(InputStream upload, Path file) throws IOException {
+        long limit = maxUploadSize.toBytes();
+        long size = 0;
+        byte[] buffer = new byte[8192];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = upload.read(buffer)) != -1) {
+                size += read;
+                if (size > limit) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "Import uploads are limited to " + maxUploadSize.toMegabytes() + " MB");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Saves the job's current state for status requests that reach other instances.
+     * A failed save only makes those requests see an older state.
+     */
+    private void save(ImportJob job) {
+        try {
+            redisTemplate.opsForValue().set(JOB_KEY_PREFIX + job.getId(), objectMapper.writeValueAsString(job),
+                    FINISHED_JOB_RETENTION);
+        } catch (Exception e) {
+            logger.warn("Failed to save import job {} to Redis: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.start();
+        save(job);
+        logger.info("Starting person import job {}", job.getId());
+        CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+        try (InputStream in = Files.newInputStream(file);
+             MappingIterator<Person> rows = objectMapper.readerFor(Person.class).readValues(in)) {
+            List<Person> chunk = new ArrayList<>(chunkSize);
+            long index = 0;
+            long chunkOffset = 0;
+            Instant saved = Instant.now();
+            while (rows.hasNextValue()) {
+                try {
+                    chunk.add(rows.next());
+                } catch (RuntimeJsonMappingException e) {
+                    job.recordUnparseable(index, e.getMessage());
+                    chunk.add(null);
+                }
+                index++;
+                if (chunk.size() == chunkSize) {
+                    pendingWrite = write(job, pendingWrite, chunk, chunkOffset);
+                    chunk = new ArrayList<>(chunkSize);
+                    chunkOffset = index;
+                    // The chunks before this one have been recorded
+                    if (Instant.now().isAfter(saved.plus(SAVE_INTERVAL))) {
+                        save(job);
+                        saved = Instant.now();
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pendingWrite = write(job, pendingWrite, chunk, chunkOffset);
+            }
+            pendingWrite.join();
+            job.complete();
+            save(job);
+            logger.info("Person import job {} completed: {} inserted, {} rejected",
+                    job.getId(), job.getInserted(), job.getRejectedCount());
+        } catch (Exception e) {
+            pendingWrite.exceptionally(ex -> null).join();
+            logger.error("Person import job {} failed: {}", job.getId(), e.getMessage());
+            job.fail(e.getMessage());
+            save(job);
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete import file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits for the previous chunk and hands the next one to the write executor,
+     * so at most one chunk per job is in flight while the following one is parsed.
+     */
+    private CompletableFuture<Void> write(ImportJob job, CompletableFuture<Void> previous,
+                                          List<Person> chunk, long offset) {
+        previous.join();
+        return CompletableFuture.runAsync(() -> {
+            List<Person> parsed = new ArrayList<>(chunk.size());
+            List<Integer> positions = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                if (chunk.get(i) != null) {
+                    parsed.add(chunk.get(i));
+                    positions.add(i);
+                }
+            }
+            BulkIngestReport report = personBulkIngestService.ingest(parsed);
+            // Map rejected rows back to their position in the upload
+            List<BulkIngestReport.RowError> rejected = report.rejected().stream()
+                    .map(row -> new BulkIngestReport.RowError(positions.get(row.index()), row.email(), row.error()))
+                    .toList();
+            job.record(new BulkIngestReport(report.received(), report.inserted(), rejected,
+                    report.elapsedMillis(), report.rowsPerSecond()), offset);
+        }, writeExecutor);
+    }
+
+    private void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
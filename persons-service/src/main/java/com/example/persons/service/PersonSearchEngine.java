@@ -0,0 +1,20 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Backend for free-text person search, selected with the {@code persons.search.engine} property.
+ */
+public interface PersonSearchEngine {
+
+    /**
+     * Finds persons whose name or email matches the query.
+     * @param query The search query.
+     * @param pageable The pagination information.
+     * @return Matching persons, best matches first where the engine ranks results. Engines that count
+     *         the matches return a {@link org.springframework.data.domain.Page}.
+     */
+    Slice<Person> search(String query, Pageable pageable);
+}
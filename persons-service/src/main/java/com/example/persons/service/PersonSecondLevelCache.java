@@ -0,0 +1,89 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the Hibernate second-level cache of persons, which lives in each instance's memory,
+ * consistent across instances. Hibernate updates the entries for writes made through this
+ * instance; writes of other instances arrive on {@link #EVICTION_TOPIC} as
+ * {@code <instance>:<id>,<id>,...} and evict the written persons and the cached email lookups.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonSecondLevelCache implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(PersonSecondLevelCache.class);
+    static final String EVICTION_TOPIC = "persons:l2:evict";
+
+    private final SessionFactory sessionFactory;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public PersonSecondLevelCache(EntityManagerFactory entityManagerFactory,
+                                  RedisTemplate<String, String> redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVICTION_TOPIC));
+    }
+
+    /**
+     * Evicts the cached entities of the given persons on this instance.
+     * @param ids The IDs of the persons.
+     */
+    public void evict(Collection<Long> ids) {
+        ids.forEach(id -> sessionFactory.getCache().evictEntityData(Person.class, id));
+    }
+
+    /**
+     * Evicts the cached results of lookups by email on this instance.
+     */
+    public void evictEmailLookups() {
+        sessionFactory.getCache().evictQueryRegion(Person.EMAIL_QUERY_CACHE_REGION);
+    }
+
+    /**
+     * Tells the other instances to evict the given persons. Call after the write has committed.
+     * @param ids The IDs of the written persons.
+     */
+    public void publish(Collection<Long> ids) {
+        String message = instanceId + ":" + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            redisTemplate.convertAndSend(EVICTION_TOPIC, message);
+        } catch (Exception e) {
+            logger.warn("Failed to publish second-level cache eviction for ids {}: {}", ids, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        evict(Arrays.stream(body.substring(separator + 1).split(","))
+                .filter(id -> !id.isBlank())
+                .map(id -> Long.valueOf(id.trim()))
+                .toList());
+        // Hibernate only invalidates cached queries for writes made through this instance
+        evictEmailLookups();
+        logger.debug("Evicted persons changed by another instance: {}", body);
+    }
+}
@@ -1,49 +1,102 @@
 package com.example.persons.service;
 
+import com.example.persons.config.TwoTierCache;
+import com.example.persons.model.CursorPage;
 import com.example.persons.model.Person;
+import com.example.persons.model.PersonPatch;
 import com.example.persons.repository.PersonRepository;
+import com.example.persons.repository.PersonWriteRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing Person entities with CRUD operations.
  */
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PersonService {
     private static final Logger logger = LoggerFactory.getLogger(PersonService.class);
+    /** Largest number of IDs and emails one lookup may ask for. */
+    public static final int MAX_LOOKUP_SIZE = 100;
     private final PersonRepository personRepository;
+    private final PersonCacheInvalidator cacheInvalidator;
+    private final PersonSearchEngine searchEngine;
+    private final CacheManager cacheManager;
 
-    public PersonService(PersonRepository personRepository) {
+    public PersonService(PersonRepository personRepository, PersonCacheInvalidator cacheInvalidator,
+                         PersonSearchEngine searchEngine, CacheManager cacheManager) {
         this.personRepository = personRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.searchEngine = searchEngine;
+        this.cacheManager = cacheManager;
     }
 
     /**
      * Retrieves all persons from the database with pagination.
+     * Pages are cached under the current cache generation, so any write invalidates them at once on this
+     * instance and on the others as soon as its announcement arrives.
      * @param pageable The pagination information.
      * @return Page of persons.
      */
-    @Cacheable("persons")
+    @Cacheable(value = "persons", key = "@personCacheInvalidator.generation() + ':' + #pageable")
     @Transactional(readOnly = true)
     public Page<Person> findAll(Pageable pageable) {
         logger.info("Fetching persons with pagination: {}", pageable);
         return personRepository.findAll(pageable);
     }
 
+    /**
+     * Retrieves persons after the given cursor, ordered by ID.
+     * Latency stays flat regardless of depth because each slice is an index seek without a count query.
+     * @param cursor The cursor returned with the previous slice, or null for the first slice.
+     * @param size The maximum number of persons to return.
+     * @return Slice of persons with the cursor of the next slice.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Person> scroll(String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), CursorPage.MAX_SIZE);
+        long afterId = CursorPage.decodeCursor(cursor);
+        logger.info("Scrolling persons after ID {} with size {}", afterId, limit);
+
+        // Fetch one extra row to learn whether another slice follows
+        List<Person> persons = personRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        boolean hasNext = persons.size() > limit;
+        List<Person> content = hasNext ? persons.subList(0, limit) : persons;
+        String nextCursor = hasNext ? CursorPage.encodeCursor(content.get(content.size() - 1).getId()) : null;
+        return new CursorPage<>(List.copyOf(content), nextCursor, hasNext);
+    }
+
     /**
      * Retrieves a person by their ID.
+     * Concurrent cache misses for the same ID share one database query.
      * @param id The ID of the person.
      * @return Optional containing the person, or empty if not found.
      */
-    @Cacheable(value = "person", key = "#id")
+    @Cacheable(value = "person", key = "#id", sync = true)
     @Transactional(readOnly = true)
     public Optional<Person> findById(Long id) {
         logger.info("Fetching person with ID: {}", id);
@@ -52,26 +105,68 @@ public class PersonService {
 
     /**
      * Retrieves a person by their email.
+     * Concurrent cache misses for the same email share one database query.
      * @param email The email of the person.
      * @return Optional containing the person, or empty if not found.
      */
-    @Cacheable(value = "personByEmail", key = "#email")
+    @Cacheable(value = "personByEmail", key = "#email", sync = true)
     @Transactional(readOnly = true)
     public Optional<Person> findByEmail(String email) {
         logger.info("Fetching person with email: {}", email);
         return personRepository.findByEmail(email);
     }
 
+    /**
+     * Retrieves many persons by ID and by email at once.
+     * Cached persons are read with one Redis round trip per cache. The rest are loaded with one
+     * query per kind of key and written back to the cache together, with absent keys cached as
+     * not found like in {@link #findById} and {@link #findByEmail}. Runs without a surrounding
+     * transaction so no database connection is held during the Redis round trips.
+     * @param ids The IDs to look up.
+     * @param emails The emails to look up.
+     * @return The persons found, each once, in the order of the IDs and then the emails.
+     */
+    public List<Person> lookup(Collection<Long> ids, Collection<String> emails) {
+        if (ids.size() + emails.size() > MAX_LOOKUP_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_LOOKUP_SIZE + " IDs and emails can be looked up at once");
+        }
+        logger.info("Looking up {} persons by ID and {} by email", ids.size(), emails.size());
+        Map<Long, Person> persons = new LinkedHashMap<>();
+        cachedLookup(PersonCacheInvalidator.PERSON_CACHE, ids, personRepository::findAllById, Person::getId)
+                .forEach(person -> persons.putIfAbsent(person.getId(), person));
+        cachedLookup(PersonCacheInvalidator.PERSON_BY_EMAIL_CACHE, emails, personRepository::findByEmailIn, Person::getEmail)
+                .forEach(person -> persons.putIfAbsent(person.getId(), person));
+        return List.copyOf(persons.values());
+    }
+
+    private <K> List<Person> cachedLookup(String cacheName, Collection<K> keys,
+                                          Function<Set<K>, List<Person>> query, Function<Person, K> keyOf) {
+        Set<K> distinctKeys = keys.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distinctKeys.isEmpty()) {
+            return List.of();
+        }
+        Function<Set<K>, Map<K, Person>> loader = missing -> query.apply(missing).stream()
+                .collect(Collectors.toMap(keyOf, Function.identity()));
+        Cache cache = cacheManager.getCache(cacheName);
+        Map<K, Person> found = cache instanceof TwoTierCache twoTierCache
+                ? twoTierCache.getAll(distinctKeys, loader)
+                : loader.apply(distinctKeys);
+        return distinctKeys.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
     /**
      * Saves a single person to the database.
      * @param person The person to save.
      * @return The saved person.
      */
-    @CacheEvict(value = {"persons", "person", "personByEmail"}, allEntries = true)
     @Transactional
     public Person save(Person person) {
         logger.info("Saving person: {}", person.getName());
-        return personRepository.save(person);
+        Person saved = personRepository.save(person);
+        // Drops a cached "not found" for the new id or email
+        cacheInvalidator.evict(saved.getId(), saved.getEmail());
+        return saved;
     }
 
     /**
@@ -79,47 +174,69 @@ public class PersonService {
      * @param persons The list of persons to save.
      * @return The saved persons.
      */
-    @CacheEvict(value = {"persons", "person", "personByEmail"}, allEntries = true)
     @Transactional
     public List<Person> saveAll(List<Person> persons) {
         logger.info("Saving {} persons", persons.size());
-        return personRepository.saveAll(persons);
+        List<Person> saved = personRepository.saveAll(persons);
+        cacheInvalidator.evictAll(
+                saved.stream().map(Person::getId).toList(),
+                saved.stream().map(Person::getEmail).toList());
+        return saved;
     }
 
     /**
-     * Updates an existing person.
+     * Replaces the fields of an existing person.
      * @param id The ID of the person to update.
-     * @param person The updated person data.
+     * @param person The updated person data; its version, if set, must match the stored one.
      * @return Optional containing the updated person, or empty if not found.
+     * @throws OptimisticLockingFailureException If the person has changed since the given version.
      */
-    @CacheEvict(value = {"persons", "person", "personByEmail"}, allEntries = true)
     @Transactional
     public Optional<Person> update(Long id, Person person) {
         logger.info("Updating person with ID: {}", id);
-        return personRepository.findById(id)
-                .map(existing -> {
-                    person.setId(id);
-                    person.setCreatedAt(existing.getCreatedAt()); // Preserve creation time
-                    return personRepository.save(person);
-                });
+        return evictUpdated(id, personRepository.replace(id, person));
+    }
+
+    /**
+     * Changes only the given fields of an existing person.
+     * @param id The ID of the person to patch.
+     * @param patch The fields to change; null fields are kept.
+     * @return Optional containing the updated person, or empty if not found.
+     * @throws ResponseStatusException 400 if the patch changes no field.
+     * @throws OptimisticLockingFailureException If the person has changed since the patch's version.
+     */
+    @Transactional
+    public Optional<Person> patch(Long id, PersonPatch patch) {
+        logger.info("Patching person with ID: {}", id);
+        if (patch.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Patch contains no fields to update");
+        }
+        return evictUpdated(id, personRepository.patch(id, patch));
     }
 
     /**
-     * Deletes a person by their ID.
+     * Soft deletes a person by their ID.
      * @param id The ID of the person to delete.
      * @return true if the person was deleted, false if not found.
      */
-    @CacheEvict(value = {"persons", "person", "personByEmail"}, allEntries = true)
     @Transactional
     public boolean delete(Long id) {
+        return delete(id, null);
+    }
+
+    /**
+     * Soft deletes a person by their ID, if it still has the expected version.
+     * @param id The ID of the person to delete.
+     * @param expectedVersion The version the person must still have, or null to delete any version.
+     * @return true if the person was deleted, false if not found.
+     * @throws OptimisticLockingFailureException If the person has changed since the expected version.
+     */
+    @Transactional
+    public boolean delete(Long id, Long expectedVersion) {
         logger.info("Soft deleting person with ID: {}", id);
-        return personRepository.findById(id)
-                .map(person -> {
-                    person.setDeleted(true);
-                    personRepository.save(person);
-                    return true;
-                })
-                .orElse(false);
+        Optional<String> email = personRepository.softDelete(id, expectedVersion);
+        email.ifPresent(deleted -> cacheInvalidator.evictWritten(id, deleted));
+        return email.isPresent();
     }
 
     /**
@@ -127,27 +244,40 @@ public class PersonService {
      * @param id The ID of the person to delete.
      * @return true if the person was deleted, false if not found.
      */
-    @CacheEvict(value = {"persons", "person", "personByEmail"}, allEntries = true)
     @Transactional
     public boolean hardDelete(Long id) {
+        return hardDelete(id, null);
+    }
+
+    /**
+     * Hard deletes a person by their ID, if it still has the expected version.
+     * @param id The ID of the person to delete.
+     * @param expectedVersion The version the person must still have, or null to delete any version.
+     * @return true if the person was deleted, false if not found.
+     * @throws OptimisticLockingFailureException If the person has changed since the expected version.
+     */
+    @Transactional
+    public boolean hardDelete(Long id, Long expectedVersion) {
         logger.info("Hard deleting person with ID: {}", id);
-        return personRepository.findById(id)
-                .map(person -> {
-                    personRepository.delete(person);
-                    return true;
-                })
-                .orElse(false);
+        Optional<String> email = personRepository.hardDelete(id, expectedVersion);
+        email.ifPresent(deleted -> cacheInvalidator.evictWritten(id, deleted));
+        return email.isPresent();
+    }
+
+    private Optional<Person> evictUpdated(Long id, Optional<PersonWriteRepository.UpdatedPerson> updated) {
+        updated.ifPresent(result -> cacheInvalidator.evictWritten(id, result.previousEmail(), result.person().getEmail()));
+        return updated.map(PersonWriteRepository.UpdatedPerson::person);
     }
 
     /**
      * Searches for persons based on a query and pagination.
      * @param query The search query.
      * @param pageable The pagination information.
-     * @return Page of persons matching the query.
+     * @return Persons matching the query; a {@link Page} with a total only if the search engine counts them.
      */
     @Transactional(readOnly = true)
-    public Page<Person> search(String query, Pageable pageable) {
+    public Slice<Person> search(String query, Pageable pageable) {
         logger.info("Searching persons with query: {}", query);
-        return personRepository.findByNameContainingOrEmailContaining(query, query, pageable);
+        return searchEngine.search(query, pageable);
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * PostgreSQL search backed by pg_trgm GIN indexes (see db/search-indexes.sql).
+ * Substring matches (ILIKE) and fuzzy matches (the % similarity operator) are both
+ * answered from the trigram indexes, and results are ranked by similarity.
+ * No count query is issued, so results are a {@link Slice} that only knows whether another page follows.
+ * The schema script is allowed to fail, so the extension is checked once the application is ready;
+ * without it, searches fall back to the LIKE query of {@link LikePersonSearchEngine}.
+ */
+@Component
+@ConditionalOnProperty(name = "persons.search.engine", havingValue = "trigram")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TrigramPersonSearchEngine implements PersonSearchEngine {
+    private static final Logger logger = LoggerFactory.getLogger(TrigramPersonSearchEngine.class);
+    private static final String SEARCH_SQL = """
+            SELECT p.* FROM person p
+            WHERE p.deleted = false
+              AND (p.name ILIKE :pattern OR p.email ILIKE :pattern
+                   OR p.name % :query OR p.email % :query)
+            ORDER BY GREATEST(similarity(p.name, :query), similarity(p.email, :query)) DESC, p.id
+            LIMIT :limit OFFSET :offset
+            """;
+    private static final String EXTENSION_SQL = "SELECT count(*) FROM pg_extension WHERE extname = 'pg_trgm'";
+
+    private final EntityManager entityManager;
+    private final PersonRepository personRepository;
+    private volatile boolean trigramAvailable = true;
+
+    public TrigramPersonSearchEngine(EntityManager entityManager, PersonRepository personRepository) {
+        this.entityManager = entityManager;
+        this.personRepository = personRepository;
+    }
+
+    /**
+     * Checks that pg_trgm is installed once db/search-indexes.sql has run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkExtension() {
+        try {
+            trigramAvailable = ((Number) entityManager.createNativeQuery(EXTENSION_SQL).getSingleResult()).longValue() > 0;
+        } catch (RuntimeException e) {
+            logger.debug("Could not look up the pg_trgm extension", e);
+            trigramAvailable = false;
+        }
+        if (!trigramAvailable) {
+            logger.warn("PostgreSQL extension pg_trgm is not installed; person search falls back to LIKE queries. "
+                    + "Install it (CREATE EXTENSION pg_trgm) or set persons.search.engine=like");
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Slice<Person> search(String query, Pageable pageable) {
+        if (!trigramAvailable) {
+            return personRepository.findByNameContainingOrEmailContaining(query, query, pageable);
+        }
+        // Fetch one extra row to learn whether another page follows
+        List<Person> persons = entityManager.createNativeQuery(SEARCH_SQL, Person.class)
+                .setParameter("pattern", "%" + escapeLike(query) + "%")
+                .setParameter("query", query)
+                .setParameter("limit", pageable.getPageSize() + 1)
+                .setParameter("offset", pageable.getOffset())
+                .getResultList();
+
+        boolean hasNext = persons.size() > pageable.getPageSize();
+        List<Person> content = hasNext ? persons.subList(0, pageable.getPageSize()) : persons;
+        return new SliceImpl<>(List.copyOf(content), pageable, hasNext);
+    }
+
+    private static String escapeLike(String query) {
+        return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,5 @@
+-- Trigram indexes for TrigramPersonSearchEngine (persons.search.engine=trigram).
+-- Built concurrently so startup does not lock writes on an existing table.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_person_name_trgm ON person USING gin (name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_person_email_trgm ON person USING gin (email gin_trgm_ops);
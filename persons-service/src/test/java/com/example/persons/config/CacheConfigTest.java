@@ -2,11 +2,11 @@ package com.example.persons.config;
 
 import com.example.persons.model.Person;
 import com.example.persons.service.PersonService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
-import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.Optional;
@@ -24,10 +24,13 @@ class CacheConfigTest {
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void whenCacheManagerIsAutowired_thenCacheManagerIsNotNull() {
         assertNotNull(cacheManager);
-        assertThat(cacheManager).isInstanceOf(RedisCacheManager.class);
+        assertThat(cacheManager).isInstanceOf(TwoTierCacheManager.class);
     }
 
     @Test
@@ -115,4 +118,25 @@ class CacheConfigTest {
         // Verify both calls return the same object (from cache)
         assertThat(firstCall.get()).isSameAs(secondCall.get());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenPersonIsReadTwice_thenSecondReadIsServedFromNearCache() {
+        // Create and save a person
+        Person person = new Person();
+        person.setName("Test Person");
+        person.setEmail("test5@example.com");
+        person.setPhoneNumber("+1234567890");
+        Person savedPerson = personService.save(person);
+
+        double l1HitsBefore = meterRegistry.counter("cache.tier.gets",
+                "cache", "person", "tier", "l1", "result", "hit").count();
+
+        personService.findById(savedPerson.getId());
+        personService.findById(savedPerson.getId());
+
+        // The second read must not leave the process
+        double l1HitsAfter = meterRegistry.counter("cache.tier.gets",
+                "cache", "person", "tier", "l1", "result", "hit").count();
+        assertThat(l1HitsAfter - l1HitsBefore).isEqualTo(1.0);
+    }
+}
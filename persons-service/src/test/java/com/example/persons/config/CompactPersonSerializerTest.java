@@ -0,0 +1,101 @@
+package com.example.persons.config;
+
+import com.example.persons.model.Person;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactPersonSerializerTest {
+    private final CompactPersonSerializer serializer = new CompactPersonSerializer();
+
+    private static Person person(long id) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName("Jöhn Doe " + id);
+        person.setEmail("john.doe" + id + "@example.com");
+        person.setPhoneNumber("+15551234567");
+        person.setAddress("1 Main Street, Springfield");
+        person.setAge(42);
+        person.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123456789));
+        person.setUpdatedAt(LocalDateTime.of(2024, 2, 3, 4, 5, 6));
+        person.setVersion(7L);
+        return person;
+    }
+
+    @Test
+    void whenPersonIsSerialized_thenItRoundTrips() {
+        Person person = person(1);
+
+        assertThat(serializer.deserialize(serializer.serialize(person))).isEqualTo(person);
+    }
+
+    @Test
+    void whenPersonHasNullFields_thenTheyStayNull() {
+        Person person = new Person();
+        person.setName("Jane Doe");
+        person.setDeleted(true);
+
+        assertThat(serializer.deserialize(serializer.serialize(person))).isEqualTo(person);
+    }
+
+    @Test
+    void whenPageIsSerialized_thenContentAndPagingRoundTrip() {
+        Pageable pageable = PageRequest.of(2, 20, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("name").ignoreCase()));
+        Page<Person> page = new PageImpl<>(List.of(person(1), person(2)), pageable, 42);
+
+        Page<?> result = (Page<?>) serializer.deserialize(serializer.serialize(page));
+
+        assertThat(result.getContent()).isEqualTo(page.getContent());
+        assertThat(result.getPageable()).isEqualTo(pageable);
+        assertThat(result.getTotalElements()).isEqualTo(42);
+    }
+
+    @Test
+    void whenPersonIsSerialized_thenItIsSmallerThanWithJdkSerialization() {
+        Person person = person(1);
+
+        assertThat(serializer.serialize(person).length)
+                .isLessThan(new JdkSerializationRedisSerializer().serialize(person).length / 2);
+    }
+
+    @Test
+    void whenValueIsNotAPerson_thenItFallsBackToJdkSerialization() {
+        Map<String, Integer> value = Map.of("count", 3);
+
+        assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+    }
+
+    @Test
+    void whenEntryHasAnotherFormatVersion_thenItIsAMiss() {
+        byte[] jdkEntry = new JdkSerializationRedisSerializer().serialize(person(1));
+        byte[] futureEntry = serializer.serialize(person(1));
+        futureEntry[0] = CompactPersonSerializer.FORMAT_VERSION + 1;
+
+        assertThat(serializer.deserialize(jdkEntry)).isNull();
+        assertThat(serializer.deserialize(futureEntry)).isNull();
+    }
+
+    @Test
+    void whenPersonFieldsChange_thenTheFormatVersionMustChange() {
+        // Update CompactPersonSerializer, bump FORMAT_VERSION and PERSON_FIELDS when this fails
+        long fields = Arrays.stream(Person.class.getDeclaredFields())
+                .map(Field::getModifiers)
+                .filter(modifiers -> !Modifier.isStatic(modifiers))
+                .count();
+
+        assertThat(fields).isEqualTo(CompactPersonSerializer.PERSON_FIELDS);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.persons.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class HybridRateLimiterTest {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private HybridRateLimiter rateLimiter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        rateLimiter = new HybridRateLimiter(redisTemplate, mock(TaskScheduler.class), "rate_limit:",
+                10, Duration.ofMinutes(1), Duration.ofMillis(100), 0.5);
+    }
+
+    @Test
+    void whenWithinLocalView_thenDecidesWithoutRedis() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", 1).allowed()).isTrue();
+        }
+
+        RateLimitDecision rejected = rateLimiter.tryAcquire("ip:10.0.0.1", 1);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterSeconds()).isBetween(1L, 60L);
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.2", 1).allowed()).isTrue();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenFlushed_thenGlobalCountFromOtherInstancesIsEnforced() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(9L));
+        rateLimiter.tryAcquire("ip:10.0.0.1", 1);
+        rateLimiter.tryAcquire("ip:10.0.0.1", 1);
+
+        rateLimiter.flush();
+
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", 1).allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", 1).allowed()).isFalse();
+        long window = System.currentTimeMillis() / 60_000;
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("rate_limit:ip:10.0.0.1:" + window)),
+                eq("2"), eq("120000"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenRedisUnavailable_thenDeltasAreKeptAndLimitIsEnforcedLocally() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(List.of(3L));
+        rateLimiter.tryAcquire("ip:10.0.0.1", 1);
+        rateLimiter.tryAcquire("ip:10.0.0.1", 1);
+
+        rateLimiter.flush();
+        rateLimiter.tryAcquire("ip:10.0.0.1", 1);
+        rateLimiter.flush();
+
+        long window = System.currentTimeMillis() / 60_000;
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("rate_limit:ip:10.0.0.1:" + window)),
+                eq("3"), eq("120000"));
+        for (int i = 0; i < 7; i++) {
+            assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", 1).allowed()).isTrue();
+        }
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", 1).allowed()).isFalse();
+    }
+
+    @Test
+    void whenRequestsHaveCosts_thenBudgetIsChargedByCost() {
+        RateLimitDecision bulk = rateLimiter.tryAcquire("ip:10.0.0.1", 8);
+        assertThat(bulk.allowed()).isTrue();
+        assertThat(bulk.remaining()).isEqualTo(2);
+
+        RateLimitDecision secondBulk = rateLimiter.tryAcquire("ip:10.0.0.1", 8);
+        assertThat(secondBulk.allowed()).isFalse();
+        assertThat(secondBulk.remaining()).isEqualTo(2);
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", 2).allowed()).isTrue();
+    }
+}
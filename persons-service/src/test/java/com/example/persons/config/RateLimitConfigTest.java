@@ -14,10 +14,12 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "rate-limit.window-size=" + RateLimitConfigTest.WINDOW_SECONDS)
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
-class RateLimitAspectTest {
+class RateLimitConfigTest {
+    static final int WINDOW_SECONDS = 5;
+    private static final long WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(WINDOW_SECONDS);
 
     @Autowired
     private MockMvc mockMvc;
@@ -25,10 +27,14 @@ class RateLimitAspectTest {
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    @Autowired
+    private HybridRateLimiter rateLimiter;
+
     @Test
     void whenRequestsWithinLimit_thenAllowRequests() throws Exception {
-        // Clear any existing rate limit data
-        redisTemplate.delete("rate_limit:127.0.0.1");
+        // Start in a fresh window without existing rate limit data
+        awaitNextWindow();
+        redisTemplate.delete(currentWindowKey());
 
         // Make requests within the limit
         for (int i = 0; i < 10; i++) {
@@ -40,13 +46,8 @@ class RateLimitAspectTest {
 
     @Test
     void whenRequestsExceedLimit_thenReturnTooManyRequests() throws Exception {
-        // Clear any existing rate limit data
-        redisTemplate.delete("rate_limit:127.0.0.1");
-
-        // Set up a key with a high count to simulate exceeded limit
-        String key = "rate_limit:127.0.0.1";
-        redisTemplate.opsForValue().set(key, "101");
-        redisTemplate.expire(key, 60, TimeUnit.SECONDS);
+        awaitNextWindow();
+        exceedLimitOnOtherInstances();
 
         // Make a request that should be rate limited
         mockMvc.perform(get("/api/persons"))
@@ -55,21 +56,38 @@ class RateLimitAspectTest {
     }
 
     @Test
-    void whenRateLimitExpires_thenAllowNewRequests() throws Exception {
-        // Clear any existing rate limit data
-        redisTemplate.delete("rate_limit:127.0.0.1");
-
-        // Set up a key with a high count but short expiration
-        String key = "rate_limit:127.0.0.1";
-        redisTemplate.opsForValue().set(key, "101");
-        redisTemplate.expire(key, 1, TimeUnit.SECONDS);
+    void whenRateLimitWindowEnds_thenAllowNewRequests() throws Exception {
+        awaitNextWindow();
+        exceedLimitOnOtherInstances();
+        mockMvc.perform(get("/api/persons"))
+                .andExpect(status().isTooManyRequests());
 
-        // Wait for the key to expire
-        Thread.sleep(1100);
+        // Wait for the window to end
+        awaitNextWindow();
 
         // Make a request that should now be allowed
         mockMvc.perform(get("/api/persons"))
                 .andExpect(status().isOk())
                 .andExpect(header().exists("X-Rate-Limit-Remaining"));
     }
-} 
\ No newline at end of file
+
+    /**
+     * Simulates requests counted by other instances; the local view learns about them
+     * with the next reconciliation.
+     */
+    private void exceedLimitOnOtherInstances() throws Exception {
+        String key = currentWindowKey();
+        redisTemplate.opsForValue().set(key, "101");
+        redisTemplate.expire(key, 2 * WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+        mockMvc.perform(get("/api/persons"));
+        rateLimiter.flush();
+    }
+
+    private static String currentWindowKey() {
+        return "rate_limit:ip:127.0.0.1:" + System.currentTimeMillis() / WINDOW_MILLIS;
+    }
+
+    private static void awaitNextWindow() throws InterruptedException {
+        Thread.sleep(WINDOW_MILLIS - System.currentTimeMillis() % WINDOW_MILLIS + 10);
+    }
+}
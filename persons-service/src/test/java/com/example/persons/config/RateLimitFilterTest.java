@@ -0,0 +1,183 @@
+package com.example.persons.config;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static BucketRegistry registry(long capacity) {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(limit -> limit.capacity(capacity).refillIntervally(capacity, Duration.ofMinutes(1)))
+                .build();
+        return new BucketRegistry(() -> configuration, 1000, Duration.ofMinutes(10), null);
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String remoteAddr) throws Exception {
+        return perform(filter, "GET", "/api/persons", remoteAddr);
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String method, String uri,
+                                                   String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        return response;
+    }
+
+    @Test
+    void whenOneClientExhaustsItsBucket_thenOtherClientsAreNotThrottled() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(registry(2), RateLimitFilter.ClientKey.IP, List.of(), List.of(),
+                new SimpleMeterRegistry());
+
+        assertThat(perform(filter, "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "10.0.0.1").getStatus()).isEqualTo(429);
+
+        MockHttpServletResponse otherClient = perform(filter, "10.0.0.2");
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+        assertThat(otherClient.getHeader("X-Rate-Limit-Remaining")).isEqualTo("1");
+    }
+
+    @Test
+    void whenKeyedBySubject_thenAuthenticatedUserSharesOneBucketAcrossAddresses() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(registry(2), RateLimitFilter.ClientKey.SUBJECT, List.of(), List.of(),
+                new SimpleMeterRegistry());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+
+        assertThat(perform(filter, "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "10.0.0.3").getStatus()).isEqualTo(429);
+
+        SecurityContextHolder.clearContext();
+        assertThat(perform(filter, "10.0.0.3").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void whenKeyedByApiKey_thenKnownKeyIsHashedAndOtherCallsFallBackToIp() {
+        String digest = HexFormat.of().formatHex(sha256("secret-key"));
+        RateLimitFilter filter = new RateLimitFilter(registry(2), RateLimitFilter.ClientKey.API_KEY,
+                List.of(digest.toUpperCase()), List.of(), new SimpleMeterRegistry());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/persons");
+        request.setRemoteAddr("10.0.0.1");
+
+        assertThat(filter.resolveClientKey(request)).isEqualTo("ip:10.0.0.1");
+
+        request.addHeader("X-API-Key", "secret-key");
+        assertThat(filter.resolveClientKey(request)).isEqualTo("key:" + digest);
+    }
+
+    @Test
+    void whenUnknownApiKeysAreSent_thenTheyShareTheCallersIpBucket() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(registry(2), RateLimitFilter.ClientKey.API_KEY,
+                List.of(), List.of(), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/persons");
+            request.setRemoteAddr("10.0.0.1");
+            request.addHeader("X-API-Key", "made-up-" + i);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            assertThat(response.getStatus()).isEqualTo(i < 2 ? 200 : 429);
+        }
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void whenManyClients_thenRegistryStaysBounded() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofMinutes(1)))
+                .build();
+        BucketRegistry registry = new BucketRegistry(() -> configuration, 100, Duration.ofMinutes(10), null);
+
+        for (int i = 0; i < 10_000; i++) {
+            registry.resolve("ip:10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        assertThat(registry.size()).isLessThanOrEqualTo(100);
+        assertThat(registry.resolve("ip:10.0.0.1")).isSameAs(registry.resolve("ip:10.0.0.1"));
+    }
+
+    @Test
+    void whenEndpointHasPolicy_thenRequestCostsPolicyTokens() throws Exception {
+        List<RateLimitProperties.Policy> policies = List.of(
+                new RateLimitProperties.Policy("bulk-ingest", List.of("post"), "/api/persons/bulk", 8));
+        RateLimitFilter filter = new RateLimitFilter(registry(10), RateLimitFilter.ClientKey.IP, List.of(), policies,
+                new SimpleMeterRegistry());
+
+        MockHttpServletResponse bulk = perform(filter, "POST", "/api/persons/bulk", "10.0.0.1");
+        assertThat(bulk.getStatus()).isEqualTo(200);
+        assertThat(bulk.getHeader("X-Rate-Limit-Remaining")).isEqualTo("2");
+
+        // Same path with another method falls back to the default cost of 1
+        assertThat(perform(filter, "GET", "/api/persons/bulk", "10.0.0.1").getHeader("X-Rate-Limit-Remaining"))
+                .isEqualTo("1");
+        assertThat(perform(filter, "POST", "/api/persons/bulk", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(perform(filter, "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void whenBatchCreateHasPolicy_thenItCostsMoreThanARead() throws Exception {
+        List<RateLimitProperties.Policy> policies = List.of(
+                new RateLimitProperties.Policy("batch", List.of("POST"), "/api/persons/batch", 10));
+        RateLimitFilter filter = new RateLimitFilter(registry(25), RateLimitFilter.ClientKey.IP, List.of(), policies,
+                new SimpleMeterRegistry());
+
+        assertThat(perform(filter, "POST", "/api/persons/batch", "10.0.0.1").getHeader("X-Rate-Limit-Remaining"))
+                .isEqualTo("15");
+        assertThat(perform(filter, "POST", "/api/persons/batch", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "POST", "/api/persons/batch", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(perform(filter, "10.0.0.1").getHeader("X-Rate-Limit-Remaining")).isEqualTo("4");
+    }
+
+    @Test
+    void whenRequestsAreDecided_thenDecisionsAreTimedByPolicyAndOutcome() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        List<RateLimitProperties.Policy> policies = List.of(
+                new RateLimitProperties.Policy("export", List.of("GET"), "/api/persons/export", 2));
+        RateLimitFilter filter = new RateLimitFilter(registry(3), RateLimitFilter.ClientKey.IP, List.of(), policies,
+                meterRegistry);
+
+        perform(filter, "GET", "/api/persons/export", "10.0.0.1");
+        perform(filter, "GET", "/api/persons/export", "10.0.0.1");
+        perform(filter, "10.0.0.1");
+
+        assertThat(meterRegistry.get("rate.limit.decisions").tags("policy", "export", "outcome", "allowed")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("rate.limit.decisions").tags("policy", "export", "outcome", "rejected")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("rate.limit.decisions").tags("policy", "default", "outcome", "allowed")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.persons.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class TwoTierCacheTest {
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private TwoTierCache cache(Duration remoteTtl, double earlyRefreshBeta) {
+        return new TwoTierCache(new ConcurrentMapCache("person"), 100, Duration.ofMinutes(1),
+                localKey -> { }, meterRegistry, remoteTtl, earlyRefreshBeta, null);
+    }
+
+    private double loads(String type) {
+        return meterRegistry.counter("cache.tier.loads", "cache", "person", "type", type).count();
+    }
+
+    @Test
+    void whenConcurrentCallersMiss_thenTheyShareOneLoad() throws Exception {
+        TwoTierCache cache = cache(Duration.ZERO, 0);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> cache.get(1L, () -> {
+                calls.incrementAndGet();
+                release.await();
+                return "John Doe";
+            })));
+        }
+        // Let every caller reach the cache before the single load finishes
+        while (loads("miss") + loads("coalesced") < CALLERS) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("John Doe");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(loads("coalesced")).isEqualTo(CALLERS - 1);
+        assertThat(cache.get(1L, () -> "reloaded")).isEqualTo("John Doe");
+    }
+
+    @Test
+    void whenLoaderFails_thenTheFailureIsNotCachedAndTheNextCallRetries() {
+        TwoTierCache cache = cache(Duration.ZERO, 0);
+
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(Cache.ValueRetrievalException.class).hasRootCauseMessage("database down");
+        assertThat(cache.get(1L, () -> "John Doe")).isEqualTo("John Doe");
+    }
+
+    @Test
+    void whenLoaderReturnsNull_thenTheMissIsCached() {
+        TwoTierCache cache = cache(Duration.ZERO, 0);
+
+        assertThat(cache.<String>get(1L, () -> null)).isNull();
+        assertThat(cache.get(1L, () -> "John Doe")).isNull();
+        assertThat(loads("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void whenEntryIsCloseToItsRemoteExpiry_thenItIsRefreshedEarly() throws Exception {
+        // A slow load against a short TTL puts every later hit inside the refresh window
+        TwoTierCache cache = cache(Duration.ofMillis(100), 1000);
+        cache.get(1L, () -> {
+            Thread.sleep(20);
+            return "John Doe";
+        });
+
+        assertThat(cache.get(1L, () -> "Jane Doe")).isEqualTo("Jane Doe");
+        assertThat(loads("early-refresh")).isEqualTo(1);
+    }
+
+    @Test
+    void whenEarlyRefreshIsDisabled_thenHitsAreNotReloaded() throws Exception {
+        TwoTierCache cache = cache(Duration.ofMillis(100), 0);
+        cache.get(1L, () -> {
+            Thread.sleep(20);
+            return "John Doe";
+        });
+
+        assertThat(cache.get(1L, () -> "Jane Doe")).isEqualTo("John Doe");
+        assertThat(loads("early-refresh")).isZero();
+    }
+
+    @Test
+    void whenManyKeysAreLookedUp_thenMissesAreLoadedTogetherAndCached() {
+        TwoTierCache cache = cache(Duration.ZERO, 0);
+        cache.put(1L, "John Doe");
+        List<Object> loaded = new ArrayList<>();
+
+        Map<Long, String> values = cache.getAll(List.of(3L, 1L, 2L), missing -> {
+            loaded.add(missing);
+            return Map.of(2L, "Jane Doe");
+        });
+
+        assertThat(values).containsExactly(entry(3L, null), entry(1L, "John Doe"), entry(2L, "Jane Doe"));
+        assertThat(loaded).containsExactly(Set.of(3L, 2L));
+        assertThat(cache.get(2L, () -> "reloaded")).isEqualTo("Jane Doe");
+        assertThat(cache.<String>get(3L, () -> "reloaded")).isNull();
+    }
+}
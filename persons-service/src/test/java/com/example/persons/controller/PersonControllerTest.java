@@ -2,6 +2,7 @@ package com.example.persons.controller;
 
 import com.example.persons.config.TestConfig;
 import com.example.persons.model.Person;
+import com.example.persons.model.PersonPatch;
 import com.example.persons.service.PersonService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -66,6 +67,43 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$.content[0].name", is(testPerson.getName())));
     }
 
+    @Test
+    @WithMockUser
+    void whenScrollPersons_thenReturnSliceWithoutTotals() throws Exception {
+        // Given
+        personService.save(testPerson);
+
+        // When/Then
+        mockMvc.perform(get("/api/persons/scroll")
+                .param("size", "10")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].email", is(testPerson.getEmail())))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void whenScrollWithInvalidCursor_thenReturnBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/persons/scroll")
+                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid cursor: not-a-cursor")));
+    }
+
+    @Test
+    @WithMockUser
+    void whenExportWithUnknownFormat_thenReturnBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/persons/export")
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Unknown export format: xml")));
+    }
+
     @Test
     @WithMockUser
     void whenGetPersonById_thenReturnPerson() throws Exception {
@@ -95,6 +133,72 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$.email", is(testPerson.getEmail())));
     }
 
+    @Test
+    void whenPreflightingConditionalRequest_thenItsHeadersAreAllowed() throws Exception {
+        // When/Then
+        mockMvc.perform(options("/api/persons/{id}", 1)
+                .header("Origin", "http://localhost:3000")
+                .header("Access-Control-Request-Method", "PUT")
+                .header("Access-Control-Request-Headers", "if-match,if-none-match,if-modified-since"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Allow-Headers",
+                        allOf(containsString("if-match"), containsString("if-none-match"),
+                                containsString("if-modified-since"))));
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetPersonFromAnotherOrigin_thenValidatorsAreExposed() throws Exception {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+
+        // When/Then
+        mockMvc.perform(get("/api/persons/{id}", savedPerson.getId())
+                .header("Origin", "http://localhost:3000"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Expose-Headers",
+                        allOf(containsString("ETag"), containsString("Last-Modified"))));
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetPersonWithCurrentETag_thenReturnNotModified() throws Exception {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+        String eTag = "\"" + savedPerson.getId() + "-0\"";
+        mockMvc.perform(get("/api/persons/{id}", savedPerson.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+
+        // When/Then
+        mockMvc.perform(get("/api/persons/{id}", savedPerson.getId())
+                .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/persons/{id}", savedPerson.getId())
+                .header("If-None-Match", "\"" + savedPerson.getId() + "-7\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(testPerson.getEmail())));
+    }
+
+    @Test
+    @WithMockUser
+    void whenLookupPersons_thenReturnFoundPersonsOnce() throws Exception {
+        // Given
+        testPerson.setEmail("jane.lookup@example.com");
+        Person savedPerson = personService.save(testPerson);
+
+        // When/Then
+        mockMvc.perform(get("/api/persons/lookup")
+                .param("ids", savedPerson.getId().toString(), "999999")
+                .param("emails", testPerson.getEmail(), "nobody@example.com")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(savedPerson.getId().intValue())));
+    }
+
     @Test
     @WithMockUser
     void whenCreatePerson_thenReturnCreatedPerson() throws Exception {
@@ -136,19 +240,111 @@ class PersonControllerTest {
     void whenUpdatePerson_thenReturnUpdatedPerson() throws Exception {
         // Given
         Person savedPerson = personService.save(testPerson);
-        savedPerson.setName("Updated Name");
-        savedPerson.setPhoneNumber("+9876543210");
+        Person update = copy(savedPerson);
+        update.setName("Updated Name");
+        update.setPhoneNumber("+9876543210");
 
         // When/Then
         mockMvc.perform(put("/api/persons/{id}", savedPerson.getId())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(savedPerson)))
+                .content(objectMapper.writeValueAsString(update)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(savedPerson.getId().intValue())))
                 .andExpect(jsonPath("$.name", is("Updated Name")))
                 .andExpect(jsonPath("$.phoneNumber", is("+9876543210")));
     }
 
+    @Test
+    @WithMockUser
+    void whenPatchPerson_thenOnlyGivenFieldsChange() throws Exception {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+
+        // When/Then
+        mockMvc.perform(patch("/api/persons/{id}", savedPerson.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"age\": 31}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.age", is(31)))
+                .andExpect(jsonPath("$.name", is(testPerson.getName())))
+                .andExpect(jsonPath("$.phoneNumber", is(testPerson.getPhoneNumber())))
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    @Test
+    @WithMockUser
+    void whenPatchChangesNothing_thenReturnBadRequest() throws Exception {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+
+        // When/Then
+        mockMvc.perform(patch("/api/persons/{id}", savedPerson.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Patch contains no fields to update")));
+    }
+
+    @Test
+    @WithMockUser
+    void whenUpdateCarriesOutdatedVersion_thenReturnConflict() throws Exception {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+        Person update = copy(savedPerson);
+        personService.patch(savedPerson.getId(), new PersonPatch(null, null, null, null, 31, null));
+        update.setName("Updated Name");
+
+        // When/Then
+        mockMvc.perform(put("/api/persons/{id}", savedPerson.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser
+    void whenUpdateCarriesCurrentIfMatch_thenReturnNewETag() throws Exception {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+        Person update = copy(savedPerson);
+        update.setName("Updated Name");
+        update.setVersion(null);
+
+        // When/Then
+        mockMvc.perform(put("/api/persons/{id}", savedPerson.getId())
+                .header("If-Match", "\"" + savedPerson.getId() + "-0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + savedPerson.getId() + "-1\""))
+                .andExpect(jsonPath("$.name", is("Updated Name")));
+    }
+
+    @Test
+    @WithMockUser
+    void whenIfMatchIsOutdated_thenReturnPreconditionFailed() throws Exception {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+        personService.patch(savedPerson.getId(), new PersonPatch(null, null, null, null, 31, null));
+        String outdated = "\"" + savedPerson.getId() + "-0\"";
+
+        // When/Then
+        mockMvc.perform(patch("/api/persons/{id}", savedPerson.getId())
+                .header("If-Match", outdated)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"age\": 32}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/persons/{id}", savedPerson.getId())
+                .header("If-Match", outdated))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/persons/{id}", savedPerson.getId())
+                .header("If-Match", "\"" + (savedPerson.getId() + 1) + "-1\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/persons/{id}", savedPerson.getId())
+                .header("If-Match", "\"" + savedPerson.getId() + "-1\""))
+                .andExpect(status().isNoContent());
+    }
+
     @Test
     @WithMockUser
     void whenDeletePerson_thenReturnNoContent() throws Exception {
@@ -199,4 +395,9 @@ class PersonControllerTest {
         mockMvc.perform(get("/api/persons"))
                 .andExpect(status().isUnauthorized());
     }
-} 
\ No newline at end of file
+
+    // The test's transaction shares the persistence context with the requests, so send a detached copy
+    private Person copy(Person person) throws Exception {
+        return objectMapper.readValue(objectMapper.writeValueAsString(person), Person.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.persons.reactive;
+
+import com.example.persons.model.Person;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactivePersonServiceTest {
+    private static final Duration TTL = Duration.ofSeconds(60);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ReactivePersonRepository personRepository;
+    private ReactiveStringRedisTemplate redisTemplate;
+    private ReactiveValueOperations<String, String> valueOperations;
+    private ReactivePersonService personService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        personRepository = mock(ReactivePersonRepository.class);
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        personService = new ReactivePersonService(personRepository, redisTemplate,
+                mock(ReactiveRedisConnectionFactory.class), objectMapper, TTL);
+    }
+
+    private static Person person(long id, String email) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName("John Doe");
+        person.setEmail(email);
+        return person;
+    }
+
+    @Test
+    void whenPersonIsCached_thenDatabaseIsNotQueried() throws Exception {
+        when(valueOperations.get("persons:read:id:1"))
+                .thenReturn(Mono.just(objectMapper.writeValueAsString(person(1, "john@example.com"))));
+
+        Person found = personService.findById(1L).block();
+
+        assertThat(found.getEmail()).isEqualTo("john@example.com");
+        verify(personRepository, never()).findByIdAndDeletedFalse(any());
+    }
+
+    @Test
+    void whenPersonIsNotCached_thenItIsLoadedAndCached() {
+        when(valueOperations.get("persons:read:id:1")).thenReturn(Mono.empty());
+        when(personRepository.findByIdAndDeletedFalse(1L)).thenReturn(Mono.just(person(1, "john@example.com")));
+
+        Person found = personService.findById(1L).block();
+
+        assertThat(found.getId()).isEqualTo(1L);
+        verify(valueOperations).set(any(), any(), any(Duration.class));
+    }
+
+    @Test
+    void whenRedisIsUnavailable_thenPersonIsReadFromDatabase() {
+        when(valueOperations.get(anyString()))
+                .thenReturn(Mono.error(new RedisConnectionFailureException("Connection refused")));
+        when(valueOperations.set(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(Mono.error(new RedisConnectionFailureException("Connection refused")));
+        when(personRepository.findByIdAndDeletedFalse(1L)).thenReturn(Mono.just(person(1, "john@example.com")));
+
+        assertThat(personService.findById(1L).block().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void whenEmailPointerIsStale_thenPersonIsLookedUpByEmail() throws Exception {
+        when(valueOperations.get("persons:read:email:john@example.com")).thenReturn(Mono.just("1"));
+        when(valueOperations.get("persons:read:id:1"))
+                .thenReturn(Mono.just(objectMapper.writeValueAsString(person(1, "johnny@example.com"))));
+        when(personRepository.findByEmailAndDeletedFalse("john@example.com"))
+                .thenReturn(Mono.just(person(2, "john@example.com")));
+
+        Person found = personService.findByEmail("john@example.com").block();
+
+        assertThat(found.getId()).isEqualTo(2L);
+        verify(valueOperations).set("persons:read:email:john@example.com", "2", TTL);
+    }
+
+    @Test
+    void whenPersonsChange_thenTheirEntriesAreEvicted() {
+        when(redisTemplate.delete(any(String[].class))).thenReturn(Mono.just(2L));
+
+        assertThat(personService.evict("1,2").block()).isEqualTo(2L);
+        verify(redisTemplate).delete("persons:read:id:1", "persons:read:id:2");
+    }
+}
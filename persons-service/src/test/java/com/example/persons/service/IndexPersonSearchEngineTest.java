@@ -0,0 +1,114 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndexPersonSearchEngineTest {
+
+    private PersonRepository personRepository;
+    private IndexPersonSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        personRepository = mock(PersonRepository.class);
+        searchEngine = new IndexPersonSearchEngine(personRepository, mock(EntityManager.class),
+                mock(PlatformTransactionManager.class), mock(RedisMessageListenerContainer.class));
+
+        when(personRepository.findByIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                person(1L, "John Doe", "john.doe@example.com", "+1234567890"),
+                person(2L, "Jane Smith", "jane.smith@corp.net", "+1987654321"),
+                person(3L, "Johnny Cash", "cash@example.com", null)));
+        searchEngine.refresh(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void whenSearchByNamePrefix_thenAllPrefixMatchesAreReturned() {
+        Page<Person> result = searchEngine.search("joh", PageRequest.of(0, 10));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(Person::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void whenSearchByEmailDomainAndPhone_thenTermsAreIntersected() {
+        assertThat(searchEngine.search("example.com", PageRequest.of(0, 10)).getContent())
+                .extracting(Person::getId).containsExactly(1L, 3L);
+        assertThat(searchEngine.search("john example", PageRequest.of(0, 10)).getContent())
+                .extracting(Person::getId).containsExactly(1L, 3L);
+        assertThat(searchEngine.search("+1987", PageRequest.of(0, 10)).getContent())
+                .extracting(Person::getId).containsExactly(2L);
+    }
+
+    @Test
+    void whenSearchWithPaging_thenOnlyRequestedPageIsReturned() {
+        Page<Person> result = searchEngine.search("example", PageRequest.of(1, 1));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(Person::getId).containsExactly(3L);
+    }
+
+    @Test
+    void whenPersonIsChangedOrRemoved_thenIndexFollows() {
+        // Given: person 1 renamed, person 3 deleted
+        when(personRepository.findByIdIn(List.of(1L, 3L)))
+                .thenReturn(List.of(person(1L, "Jonathan Doe", "jon.doe@example.com", null)));
+
+        // When
+        searchEngine.refresh(List.of(1L, 3L));
+
+        // Then
+        assertThat(searchEngine.search("john", PageRequest.of(0, 10)).getContent()).isEmpty();
+        assertThat(searchEngine.search("jonathan", PageRequest.of(0, 10)).getContent())
+                .extracting(Person::getId).containsExactly(1L);
+        assertThat(searchEngine.search("cash", PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+
+    @Test
+    void whenManyPersonsAreIndexedAndHalfRemoved_thenPrefixSearchFindsTheRest() {
+        // Given: 1000 persons whose names all start with "user" but are distinct terms
+        List<Long> ids = LongStream.rangeClosed(100, 1099).boxed().toList();
+        when(personRepository.findByIdIn(ids)).thenReturn(ids.stream()
+                .map(id -> person(id, "User" + id, "user" + id + "@example.com", null))
+                .toList());
+        searchEngine.refresh(ids);
+        List<Long> even = ids.stream().filter(id -> id % 2 == 0).toList();
+        when(personRepository.findByIdIn(even)).thenReturn(List.of());
+
+        // When
+        searchEngine.refresh(even);
+
+        // Then
+        Page<Person> result = searchEngine.search("user", PageRequest.of(0, 1000));
+        assertThat(result.getTotalElements()).isEqualTo(500);
+        assertThat(result.getContent()).extracting(Person::getId)
+                .isSorted()
+                .allMatch(id -> id % 2 == 1);
+        assertThat(result.getContent().get(0))
+                .extracting(Person::getName, Person::getEmail)
+                .containsExactly("User101", "user101@example.com");
+    }
+
+    private static Person person(Long id, String name, String email, String phone) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        person.setEmail(email);
+        person.setPhoneNumber(phone);
+        person.setVersion(0L);
+        return person;
+    }
+}
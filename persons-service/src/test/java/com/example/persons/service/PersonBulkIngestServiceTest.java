@@ -0,0 +1,77 @@
+package com.example.persons.service;
+
+import com.example.persons.config.TestConfig;
+import com.example.persons.model.BulkIngestReport;
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "persons.bulk.chunk-size=10")
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class PersonBulkIngestServiceTest {
+
+    @Autowired
+    private PersonBulkIngestService personBulkIngestService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @BeforeEach
+    void setUp() {
+        personRepository.deleteAll();
+    }
+
+    @Test
+    void whenAllRowsAreValid_thenAllRowsAreInserted() {
+        // Given
+        List<Person> persons = persons(25);
+
+        // When
+        BulkIngestReport report = personBulkIngestService.ingest(persons);
+
+        // Then
+        assertThat(report.received()).isEqualTo(25);
+        assertThat(report.inserted()).isEqualTo(25);
+        assertThat(report.rejected()).isEmpty();
+        assertThat(personRepository.count()).isEqualTo(25);
+    }
+
+    @Test
+    void whenSomeRowsAreInvalid_thenOnlyThoseRowsAreRejected() {
+        // Given
+        List<Person> persons = persons(25);
+        persons.get(3).setEmail("invalid-email");
+        persons.get(17).setEmail(persons.get(12).getEmail()); // duplicate within the same chunk
+
+        // When
+        BulkIngestReport report = personBulkIngestService.ingest(persons);
+
+        // Then
+        assertThat(report.inserted()).isEqualTo(23);
+        assertThat(report.rejected()).extracting(BulkIngestReport.RowError::index)
+                .containsExactlyInAnyOrder(3, 17);
+        assertThat(personRepository.count()).isEqualTo(23);
+    }
+
+    private List<Person> persons(int count) {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Person person = new Person();
+            person.setName("Bulk Person " + i);
+            person.setEmail("bulk" + i + "@example.com");
+            persons.add(person);
+        }
+        return persons;
+    }
+}
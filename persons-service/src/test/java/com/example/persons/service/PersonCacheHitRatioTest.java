@@ -0,0 +1,125 @@
+package com.example.persons.service;
+
+import com.example.persons.config.TestConfig;
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a 90/10 read/write mix against the person cache, once evicting every entry on each write as
+ * allEntries eviction did and once with key-precise eviction, and reports both hit ratios.
+ * Emptying the cache on every write leaves few reads to hit it; key-precise eviction only drops
+ * the written entry.
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class PersonCacheHitRatioTest {
+    private static final Logger logger = LoggerFactory.getLogger(PersonCacheHitRatioTest.class);
+    private static final int PERSONS = 100;
+    private static final int OPERATIONS = 5_000;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        personRepository.deleteAll();
+        ids.clear();
+        for (int i = 0; i < PERSONS; i++) {
+            Person person = new Person();
+            person.setName("Person " + i);
+            person.setEmail("person" + i + "@example.com");
+            ids.add(personService.save(person).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Other test contexts recreate the schema and reuse these IDs, so leave no cached persons behind
+        personRepository.deleteAll();
+        cacheManager.getCache("person").clear();
+    }
+
+    @Test
+    void whenReadWriteMixIsNinetyTen_thenKeyPreciseEvictionKeepsMostReadsCached() {
+        // Before: every write emptied the cache, as @CacheEvict(allEntries = true) did
+        double allEntries = hitRatio(() -> cacheManager.getCache("person").clear());
+        cacheManager.getCache("person").clear();
+        // After: the write evicts only its own entry (done by PersonService itself)
+        double keyPrecise = hitRatio(() -> { });
+
+        logger.info("Cache hit ratio for a 90/10 read/write mix: {} with allEntries eviction, {} with key-precise eviction",
+                String.format("%.3f", allEntries), String.format("%.3f", keyPrecise));
+
+        assertThat(allEntries).isLessThan(0.5);
+        assertThat(keyPrecise).isGreaterThan(0.8);
+    }
+
+    /**
+     * Runs the same seeded mix of reads and writes and returns the share of reads answered by the cache.
+     * @param afterWrite Extra eviction run after every write.
+     */
+    private double hitRatio(Runnable afterWrite) {
+        Random random = new Random(42);
+        double hitsBefore = hits();
+        double missesBefore = misses();
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            Long id = ids.get(random.nextInt(ids.size()));
+            if (random.nextInt(10) == 0) {
+                personService.findById(id).ifPresent(person -> {
+                    person.setName("Updated " + random.nextInt(1000));
+                    personService.update(person.getId(), person);
+                });
+                afterWrite.run();
+            } else {
+                personService.findById(id);
+            }
+        }
+
+        double hits = hits() - hitsBefore;
+        double misses = misses() - missesBefore;
+        return hits / (hits + misses);
+    }
+
+    private double hits() {
+        return count("l1", "hit") + count("l2", "hit");
+    }
+
+    private double misses() {
+        return count("l2", "miss");
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.counter("cache.tier.gets",
+                "cache", "person", "tier", tier, "result", result).count();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.persons.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PersonCacheInvalidatorTest {
+    private ValueOperations<String, String> values;
+    private PersonCacheInvalidator cacheInvalidator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        cacheInvalidator = new PersonCacheInvalidator(mock(CacheManager.class), redisTemplate,
+                mock(PersonSecondLevelCache.class), mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void whenPagesAreReadRepeatedly_thenTheGenerationIsReadFromRedisOnce() {
+        when(values.get(PersonCacheInvalidator.GENERATION_KEY)).thenReturn("7");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cacheInvalidator.generation()).isEqualTo("7");
+        }
+        verify(values, times(1)).get(PersonCacheInvalidator.GENERATION_KEY);
+    }
+
+    @Test
+    void whenAWriteIsAnnounced_thenTheNewGenerationIsPickedUp() {
+        when(values.get(PersonCacheInvalidator.GENERATION_KEY)).thenReturn(null, "8");
+        assertThat(cacheInvalidator.generation()).isEqualTo("0");
+
+        cacheInvalidator.onMessage(null, null);
+
+        assertThat(cacheInvalidator.generation()).isEqualTo("8");
+    }
+
+    @Test
+    void whenThisInstanceWrites_thenItUsesTheIncrementedGenerationWithoutReadingIt() {
+        when(values.get(PersonCacheInvalidator.GENERATION_KEY)).thenReturn("3");
+        when(values.increment(PersonCacheInvalidator.GENERATION_KEY)).thenReturn(4L);
+        cacheInvalidator.generation();
+
+        cacheInvalidator.evict(1L, "john.doe@example.com");
+
+        assertThat(cacheInvalidator.generation()).isEqualTo("4");
+        verify(values, times(1)).get(PersonCacheInvalidator.GENERATION_KEY);
+    }
+
+    @Test
+    void whenAnOlderGenerationIsReadLate_thenTheGenerationDoesNotGoBack() {
+        when(values.get(PersonCacheInvalidator.GENERATION_KEY)).thenReturn("5");
+        when(values.increment(PersonCacheInvalidator.GENERATION_KEY)).thenReturn(6L);
+        cacheInvalidator.evict(1L);
+
+        cacheInvalidator.onMessage(null, null);
+
+        assertThat(cacheInvalidator.generation()).isEqualTo("6");
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.persons.service;
+
+import com.example.persons.config.TestConfig;
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+class PersonExportServiceTest {
+
+    @Autowired
+    private PersonExportService personExportService;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    private Person john;
+    private Person jane;
+
+    @BeforeEach
+    void setUp() {
+        personRepository.deleteAll();
+        // Hibernate runs inserts before deletes at flush, which would clash with the emails deleted here
+        personRepository.flush();
+
+        john = new Person();
+        john.setName("John Doe");
+        john.setEmail("john.doe@example.com");
+        john.setAddress("123 Test St, Springfield");
+
+        jane = new Person();
+        jane.setName("Jane Doe");
+        jane.setEmail("jane.doe@example.com");
+
+        personService.saveAll(Arrays.asList(john, jane));
+    }
+
+    @Test
+    void whenExportAsNdjson_thenOnePersonPerLine() throws Exception {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = personExportService.export(out, PersonExportService.Format.NDJSON);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"email\":\"john.doe@example.com\"");
+        assertThat(lines[1]).contains("\"email\":\"jane.doe@example.com\"");
+    }
+
+    @Test
+    void whenExportAsCsv_thenFieldsAreQuotedWhereNeeded() throws Exception {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = personExportService.export(out, PersonExportService.Format.CSV);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("id,name,email");
+        assertThat(lines[1]).contains("\"123 Test St, Springfield\"");
+    }
+}
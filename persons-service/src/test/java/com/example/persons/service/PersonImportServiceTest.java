@@ -0,0 +1,119 @@
+package com.example.persons.service;
+
+import com.example.persons.config.TestConfig;
+import com.example.persons.model.ImportJob;
+import com.example.persons.repository.PersonRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"persons.import.chunk-size=2", "persons.import.max-upload-size=1KB"})
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class PersonImportServiceTest {
+
+    @Autowired
+    private PersonImportService personImportService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        personRepository.deleteAll();
+    }
+
+    @Test
+    void whenNdjsonIsImported_thenValidRowsAreStoredAndInvalidRowsReported() throws Exception {
+        // Given
+        String upload = """
+                {"name":"John Doe","email":"john.doe@example.com"}
+                {"name":"Jane Doe","email":"not-an-email"}
+                {"name":"Jim Doe","email":"jim.doe@example.com","age":"old"}
+                {"name":"Joe Doe","email":"joe.doe@example.com"}
+                """;
+
+        // When
+        ImportJob job = personImportService.submit(new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)));
+        awaitFinished(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getProcessed()).isEqualTo(4);
+        assertThat(job.getInserted()).isEqualTo(2);
+        assertThat(job.getRejected()).extracting(row -> row.index()).containsExactlyInAnyOrder(1, 2);
+        assertThat(personRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void whenJsonArrayIsImported_thenAllRowsAreStored() throws Exception {
+        // Given
+        String upload = "[{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"},"
+                + "{\"name\":\"Jane Doe\",\"email\":\"jane.doe@example.com\"},"
+                + "{\"name\":\"Joe Doe\",\"email\":\"joe.doe@example.com\"}]";
+
+        // When
+        ImportJob job = personImportService.submit(new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)));
+        awaitFinished(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getInserted()).isEqualTo(3);
+        assertThat(personImportService.findJob(job.getId())).contains(job);
+    }
+
+    @Test
+    void whenStatusIsRequestedFromAnotherInstance_thenTheJobIsReadFromRedis() throws Exception {
+        // Given
+        String upload = "[{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}]";
+        ImportJob job = personImportService.submit(new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)));
+        awaitFinished(job);
+        PersonImportService otherInstance = new PersonImportService(null, objectMapper, null, null, redisTemplate);
+
+        // When
+        ImportJob found = otherInstance.findJob(job.getId()).orElseThrow();
+
+        // Then
+        assertThat(found).isNotSameAs(job);
+        assertThat(found.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(found.getInserted()).isEqualTo(1);
+        assertThat(found.getFinishedAt()).isEqualTo(job.getFinishedAt());
+        assertThat(otherInstance.findJob("unknown")).isEmpty();
+    }
+
+    @Test
+    void whenUploadIsLargerThanTheLimit_thenItIsRefused() {
+        byte[] upload = ("[" + "{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"},".repeat(30) + "]")
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> personImportService.submit(new ByteArrayInputStream(upload)))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+    }
+
+    private void awaitFinished(ImportJob job) throws InterruptedException {
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(100);
+        }
+    }
+}
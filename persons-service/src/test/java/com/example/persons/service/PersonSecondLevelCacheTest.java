@@ -0,0 +1,126 @@
+package com.example.persons.service;
+
+import com.example.persons.config.TestConfig;
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class PersonSecondLevelCacheTest {
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private Person person;
+
+    @BeforeEach
+    void setUp() {
+        personRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Person newPerson = new Person();
+        newPerson.setName("John Doe");
+        newPerson.setEmail("john.doe@example.com");
+        person = personService.save(newPerson);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // deleteAll() does not see soft-deleted persons, whose email would clash with other tests
+        jdbcTemplate.update("DELETE FROM person");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void whenPersonIsLoadedRepeatedly_thenItIsLoadedFromTheSecondLevelCache() {
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(personRepository.findById(person.getId())).isPresent();
+        }
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(3);
+        assertThat(statistics.getEntityStatistics(Person.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void whenPersonIsUpdated_thenTheSecondLevelCacheServesTheNewVersion() {
+        personRepository.findById(person.getId());
+        person.setName("John Smith");
+
+        Person updated = personService.update(person.getId(), person).orElseThrow();
+
+        assertThat(updated.getVersion()).isEqualTo(person.getVersion() + 1);
+        assertThat(personRepository.findById(person.getId())).get()
+                .extracting(Person::getName, Person::getVersion)
+                .containsExactly("John Smith", updated.getVersion());
+    }
+
+    @Test
+    void whenPersonIsSoftDeleted_thenItIsNotServedFromTheSecondLevelCache() {
+        assertThat(personService.delete(person.getId())).isTrue();
+
+        assertThat(personRepository.findById(person.getId())).isEmpty();
+        assertThat(personService.delete(person.getId())).isFalse();
+    }
+
+    @Test
+    void whenRowChangesBehindTheCache_thenReadingItForTheSearchIndexRefreshesTheCache() {
+        personRepository.findById(person.getId());
+        // As written by another instance whose eviction has not arrived yet
+        jdbcTemplate.update("UPDATE person SET name = 'John Smith', version = version + 1 WHERE id = ?", person.getId());
+
+        assertThat(personRepository.findByIdIn(List.of(person.getId())))
+                .extracting(Person::getName)
+                .containsExactly("John Smith");
+        assertThat(personRepository.findById(person.getId())).get()
+                .extracting(Person::getName)
+                .isEqualTo("John Smith");
+    }
+
+    @Test
+    void whenEmailIsLookedUpAgain_thenTheQueryCacheAnswers() {
+        personRepository.findByEmail(person.getEmail());
+        statistics.clear();
+
+        assertThat(personRepository.findByEmail(person.getEmail())).contains(person);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+    }
+
+    @Test
+    void whenPersonIsChanged_thenCachedEmailLookupsAreInvalidated() {
+        personRepository.findByEmail(person.getEmail());
+        person.setEmail("john.smith@example.com");
+        personService.update(person.getId(), person);
+
+        assertThat(personRepository.findByEmail("john.doe@example.com")).isEmpty();
+        assertThat(personRepository.findByEmail("john.smith@example.com")).isPresent();
+    }
+}
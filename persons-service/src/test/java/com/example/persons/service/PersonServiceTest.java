@@ -1,17 +1,22 @@
 package com.example.persons.service;
 
 import com.example.persons.config.TestConfig;
+import com.example.persons.model.CursorPage;
 import com.example.persons.model.Person;
+import com.example.persons.model.PersonPatch;
 import com.example.persons.repository.PersonRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Arrays;
 import java.util.List;
@@ -150,6 +155,40 @@ class PersonServiceTest {
         assertThat(foundPerson).isEmpty();
     }
 
+    @Test
+    void whenPatchPerson_thenOnlyGivenFieldsChange() {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+
+        // When
+        Optional<Person> patchedPerson = personService.patch(savedPerson.getId(),
+                new PersonPatch(null, null, null, null, 31, savedPerson.getVersion()));
+
+        // Then
+        assertThat(patchedPerson).isPresent();
+        assertThat(patchedPerson.get().getAge()).isEqualTo(31);
+        assertThat(patchedPerson.get().getName()).isEqualTo("John Doe");
+        assertThat(patchedPerson.get().getAddress()).isEqualTo("123 Test St");
+        assertThat(patchedPerson.get().getVersion()).isEqualTo(savedPerson.getVersion() + 1);
+    }
+
+    @Test
+    void whenDeleteWithOutdatedVersion_thenItConflicts() {
+        // Given
+        Person savedPerson = personService.save(testPerson);
+        Long version = savedPerson.getVersion();
+        personService.patch(savedPerson.getId(), new PersonPatch("Jane Doe", null, null, null, null, version));
+
+        // When / Then
+        assertThrows(OptimisticLockingFailureException.class, () -> personService.delete(savedPerson.getId(), version));
+        assertThat(personService.findById(savedPerson.getId())).isPresent();
+    }
+
+    @Test
+    void whenDeleteMissingPersonWithVersion_thenNothingIsFound() {
+        assertThat(personService.delete(Long.MAX_VALUE, 0L)).isFalse();
+    }
+
     @Test
     void whenSearchPersons_thenMatchingPersonsAreReturned() {
         // Given
@@ -163,7 +202,7 @@ class PersonServiceTest {
         personService.saveAll(Arrays.asList(testPerson, person2));
 
         // When
-        Page<Person> searchResults = personService.search("john", PageRequest.of(0, 10));
+        Slice<Person> searchResults = personService.search("john", PageRequest.of(0, 10));
 
         // Then
         assertThat(searchResults.getContent()).hasSize(1);
@@ -183,4 +222,35 @@ class PersonServiceTest {
         // When/Then
         assertThrows(Exception.class, () -> personService.save(duplicatePerson));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenScrollPersons_thenSlicesFollowCursor() {
+        // Given
+        Person person2 = new Person();
+        person2.setName("Jane Doe");
+        person2.setEmail("jane.doe@example.com");
+        Person person3 = new Person();
+        person3.setName("Jim Doe");
+        person3.setEmail("jim.doe@example.com");
+
+        personService.saveAll(Arrays.asList(testPerson, person2, person3));
+
+        // When
+        CursorPage<Person> first = personService.scroll(null, 2);
+        CursorPage<Person> second = personService.scroll(first.nextCursor(), 2);
+
+        // Then
+        assertThat(first.content()).extracting(Person::getEmail)
+                .containsExactly(testPerson.getEmail(), person2.getEmail());
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.content()).extracting(Person::getEmail)
+                .containsExactly(person3.getEmail());
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void whenScrollWithMalformedCursor_thenExceptionIsThrown() {
+        assertThrows(ResponseStatusException.class, () -> personService.scroll("not-a-cursor", 10));
+    }
+}
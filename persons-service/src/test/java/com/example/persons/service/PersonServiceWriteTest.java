@@ -0,0 +1,122 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import com.example.persons.model.PersonPatch;
+import com.example.persons.repository.PersonRepository;
+import com.example.persons.repository.PersonWriteRepository.UpdatedPerson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PersonServiceWriteTest {
+    private PersonRepository personRepository;
+    private PersonCacheInvalidator cacheInvalidator;
+    private PersonService personService;
+
+    @BeforeEach
+    void setUp() {
+        personRepository = mock(PersonRepository.class);
+        cacheInvalidator = mock(PersonCacheInvalidator.class);
+        personService = new PersonService(personRepository, cacheInvalidator, mock(PersonSearchEngine.class),
+                mock(CacheManager.class));
+    }
+
+    private static Person person(String email, long version) {
+        Person person = new Person();
+        person.setId(1L);
+        person.setName("John Doe");
+        person.setEmail(email);
+        person.setVersion(version);
+        return person;
+    }
+
+    @Test
+    void whenUpdatePerson_thenAllFieldsAreReplacedWithoutLoadingIt() {
+        Person body = person("john.smith@example.com", 3);
+        Person updated = person("john.smith@example.com", 4);
+        when(personRepository.replace(1L, body))
+                .thenReturn(Optional.of(new UpdatedPerson(updated, "john.doe@example.com")));
+
+        assertThat(personService.update(1L, body)).contains(updated);
+        verify(personRepository, never()).findById(anyLong());
+        verify(cacheInvalidator).evictWritten(1L, "john.doe@example.com", "john.smith@example.com");
+    }
+
+    @Test
+    void whenPatchPerson_thenThePatchIsWritten() {
+        PersonPatch patch = new PersonPatch(null, null, null, null, 31, null);
+        Person updated = person("john.doe@example.com", 1);
+        when(personRepository.patch(1L, patch))
+                .thenReturn(Optional.of(new UpdatedPerson(updated, "john.doe@example.com")));
+
+        assertThat(personService.patch(1L, patch)).contains(updated);
+    }
+
+    @Test
+    void whenPatchIsEmpty_thenItIsRejected() {
+        assertThatThrownBy(() -> personService.patch(1L, new PersonPatch(null, null, null, null, null, 2L)))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void whenVersionIsOutdated_thenUpdateConflicts() {
+        Person body = person("john.doe@example.com", 2);
+        when(personRepository.replace(1L, body))
+                .thenThrow(new OptimisticLockingFailureException("Person 1 has changed since version 2"));
+
+        assertThatThrownBy(() -> personService.update(1L, body))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    void whenPersonIsMissing_thenUpdateFindsNothing() {
+        Person body = person("john.doe@example.com", 2);
+        when(personRepository.replace(1L, body)).thenReturn(Optional.empty());
+
+        assertThat(personService.update(1L, body)).isEmpty();
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    void whenDeletePerson_thenItsCachesAreEvicted() {
+        when(personRepository.softDelete(1L, null)).thenReturn(Optional.of("john.doe@example.com"));
+
+        assertThat(personService.delete(1L)).isTrue();
+        verify(personRepository, never()).findById(anyLong());
+        verify(cacheInvalidator).evictWritten(1L, "john.doe@example.com");
+    }
+
+    @Test
+    void whenDeleteFindsNothing_thenNothingIsEvicted() {
+        when(personRepository.softDelete(1L, null)).thenReturn(Optional.empty());
+
+        assertThat(personService.delete(1L)).isFalse();
+        verify(personRepository, never()).existsById(anyLong());
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    void whenHardDeletePerson_thenItIsNotSoftDeleted() {
+        when(personRepository.hardDelete(1L, 5L)).thenReturn(Optional.of("john.doe@example.com"));
+
+        assertThat(personService.hardDelete(1L, 5L)).isTrue();
+        verify(personRepository, never()).softDelete(anyLong(), isNull());
+        verify(cacheInvalidator).evictWritten(1L, "john.doe@example.com");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.persons.service;
+
+import com.example.persons.model.Person;
+import com.example.persons.repository.PersonRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrigramPersonSearchEngineTest {
+    private EntityManager entityManager;
+    private PersonRepository personRepository;
+    private TrigramPersonSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        personRepository = mock(PersonRepository.class);
+        searchEngine = new TrigramPersonSearchEngine(entityManager, personRepository);
+    }
+
+    private static Person person(long id) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName("John " + id);
+        person.setEmail("john" + id + "@example.com");
+        return person;
+    }
+
+    private void extensionCount(long count) {
+        Query query = mock(Query.class);
+        when(query.getSingleResult()).thenReturn(count);
+        when(entityManager.createNativeQuery(contains("pg_extension"))).thenReturn(query);
+    }
+
+    @Test
+    void whenMoreRowsThanThePageExist_thenTheSliceHasNextWithoutACount() {
+        extensionCount(1);
+        searchEngine.checkExtension();
+        Query query = mock(Query.class, invocation ->
+                invocation.getMethod().getName().equals("getResultList") ? null : invocation.getMock());
+        when(query.getResultList()).thenReturn(List.of(person(1), person(2), person(3)));
+        when(entityManager.createNativeQuery(anyString(), eq(Person.class))).thenReturn(query);
+
+        Slice<Person> result = searchEngine.search("john", PageRequest.of(0, 2));
+
+        assertThat(result).isNotInstanceOf(Page.class);
+        assertThat(result.getContent()).extracting(Person::getId).containsExactly(1L, 2L);
+        assertThat(result.hasNext()).isTrue();
+        verify(query).setParameter("limit", 3);
+    }
+
+    @Test
+    void whenPgTrgmIsMissing_thenSearchFallsBackToLike() {
+        extensionCount(0);
+        PageImpl<Person> likeResult = new PageImpl<>(List.of(person(1)));
+        when(personRepository.findByNameContainingOrEmailContaining(eq("john"), eq("john"), any()))
+                .thenReturn(likeResult);
+
+        searchEngine.checkExtension();
+
+        assertThat(searchEngine.search("john", PageRequest.of(0, 10))).isSameAs(likeResult);
+        verify(entityManager, never()).createNativeQuery(anyString(), eq(Person.class));
+    }
+
+    @Test
+    void whenTheExtensionCannotBeLookedUp_thenSearchFallsBackToLike() {
+        when(entityManager.createNativeQuery(contains("pg_extension")))
+                .thenThrow(new IllegalStateException("relation \"pg_extension\" does not exist"));
+
+        searchEngine.checkExtension();
+        searchEngine.search("john", PageRequest.of(0, 10));
+
+        verify(personRepository).findByNameContainingOrEmailContaining(eq("john"), eq("john"), any());
+    }
+}